@@ -0,0 +1,59 @@
+package com.system;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+// assignment of all pending pickup requests to the elevators (estimated steps matrix and the assignment engine)
+// by both assignment engines for different numbers of requests and elevators - FULL dispatch of the same requests, repeated
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+    private static final int NUMBER_OF_FLOORS = 100;
+
+    @Param({"10", "100", "1000"})
+    public int numberOfRequests;
+
+    @Param({"4", "16", "64"})
+    public int numberOfElevators;
+
+    @Param({"GREEDY", "MIN_COST"})
+    public AssignmentEngine assignmentEngine;
+
+    private ElevatorSystem elevatorSystem;
+
+    @Setup
+    public void setUp() {
+        int[] startingFloors = new int[numberOfElevators];
+        for (int i = 0; i < numberOfElevators; i++) {
+            startingFloors[i] = i * NUMBER_OF_FLOORS / numberOfElevators;
+        }
+        elevatorSystem = new ElevatorSystem(numberOfElevators, NUMBER_OF_FLOORS, 20, 2, 2, 2, startingFloors);
+        elevatorSystem.setDispatchMode(DispatchMode.FULL);
+        elevatorSystem.setAssignmentEngine(assignmentEngine);
+        // MIN_COST never falls back to GREEDY, so that the engines are compared and not their mix
+        elevatorSystem.setAssignmentTimeBudget(Duration.ofMinutes(1));
+        // repeated dispatches log their activities in the same step, so only a fixed number of activities is kept
+        elevatorSystem.setActivityRetention(ActivityRetention.lastActivities(16), null);
+
+        Iterator<ScheduledPickup> requests = new TrafficGenerator(42, NUMBER_OF_FLOORS, TrafficProfile.LUNCH, 1.0)
+                .requests(1, numberOfRequests);
+        while (requests.hasNext()) {
+            elevatorSystem.pickup(requests.next().getRequest());
+        }
+        // takes the requests in and sets elevators in motion
+        elevatorSystem.step();
+    }
+
+    @Benchmark
+    public void dispatchPickupRequests() {
+        elevatorSystem.dispatchPickupRequests();
+    }
+}
@@ -0,0 +1,65 @@
+package com.system;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// steps of a large bank of elevators without dispatching - every elevator travels between random deliveries,
+// its door is closed in the step after it opened and a new delivery is given to it (a campus of buildings in one bank)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ElevatorBankStepBenchmark {
+
+    private static final int NUMBER_OF_FLOORS = 50;
+
+    @Param({"64", "1024", "16384"})
+    public int numberOfElevators;
+
+    private SimulationClock clock;
+    private ElevatorBank bank;
+    private SplittableRandom random;
+    private List<Elevator> elevatorsThatOpenedDoor;
+    private List<Integer> delivery;
+
+    @Setup
+    public void setUp() {
+        clock = new SimulationClock();
+        bank = new ElevatorBank(numberOfElevators, NUMBER_OF_FLOORS, clock);
+        random = new SplittableRandom(42);
+        elevatorsThatOpenedDoor = new ArrayList<>();
+        delivery = new ArrayList<>(List.of(0));
+        for (int i = 0; i < numberOfElevators; i++) {
+            Elevator elevator = new Elevator(bank, i, i, random.nextInt(NUMBER_OF_FLOORS + 1), 2, 2, NUMBER_OF_FLOORS);
+            elevator.setActivityRetention(ActivityRetention.lastSteps(1), null);
+            addRandomDelivery(elevator);
+        }
+    }
+
+    @Benchmark
+    public int step() {
+        clock.advance();
+        bank.stepAll(elevatorsThatOpenedDoor);
+        for (int i = 0; i < elevatorsThatOpenedDoor.size(); i++) {
+            Elevator elevator = elevatorsThatOpenedDoor.get(i);
+            elevator.removeDelivery(elevator.getCurrentFloor());
+            elevator.closeDoor();
+            addRandomDelivery(elevator);
+        }
+        int opened = elevatorsThatOpenedDoor.size();
+        elevatorsThatOpenedDoor.clear();
+        return opened;
+    }
+
+    private void addRandomDelivery(Elevator elevator) {
+        int floor = random.nextInt(NUMBER_OF_FLOORS);
+        delivery.set(0, floor >= elevator.getCurrentFloor() ? floor + 1 : floor);
+        elevator.addDeliveryDestinationFloorList(delivery);
+    }
+}
@@ -0,0 +1,110 @@
+package com.system;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// single elevator hot paths - estimation of a pickup (every case of elevator state and request direction) and step
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ElevatorBenchmark {
+
+    private static final int NUMBER_OF_FLOORS = 100;
+    private static final int ENTERING_STEPS = 2;
+    private static final int LEAVING_STEPS = 2;
+    // floors of requests handled by the stepped elevator, in turn
+    private static final int[] REQUEST_FLOORS = {80, 15, 55, 95, 5, 40, 70, 25};
+
+    // numbers refer to the cases of Elevator.estimateNumberOfStepsUntilPickup
+    public enum EstimationCase {
+        UP_REQUEST_UP_ABOVE(ElevatorState.UP, 75, RequestDirection.UP), // (1)
+        DOWN_REQUEST_DOWN_BELOW(ElevatorState.DOWN, 25, RequestDirection.DOWN), // (2)
+        UP_REQUEST_DOWN_ABOVE(ElevatorState.UP, 70, RequestDirection.DOWN), // (3)
+        DOWN_REQUEST_UP_BELOW(ElevatorState.DOWN, 30, RequestDirection.UP), // (4)
+        UP_REQUEST_UP_BELOW(ElevatorState.UP, 30, RequestDirection.UP), // (5)
+        DOWN_REQUEST_DOWN_ABOVE(ElevatorState.DOWN, 70, RequestDirection.DOWN); // (6)
+
+        private final ElevatorState elevatorState;
+        private final int requestFloor;
+        private final RequestDirection requestDirection;
+
+        EstimationCase(ElevatorState elevatorState, int requestFloor, RequestDirection requestDirection) {
+            this.elevatorState = elevatorState;
+            this.requestFloor = requestFloor;
+            this.requestDirection = requestDirection;
+        }
+    }
+
+    @Param
+    public EstimationCase estimationCase;
+
+    private Elevator estimatingElevator;
+    private PickupRequest estimatedRequest;
+
+    private SimulationClock clock;
+    private Elevator steppedElevator;
+    private PickupRequest pendingRequest;
+    private int nextRequest;
+
+    @Setup
+    public void setUp() {
+        // elevator in the middle of the building, with deliveries and pickups on both sides
+        estimatingElevator = new Elevator(0, 50, ENTERING_STEPS, LEAVING_STEPS, NUMBER_OF_FLOORS);
+        estimatingElevator.addDeliveryDestinationFloorList(List.of(20, 35, 65, 80));
+        estimatingElevator.addPickupRequest(new PickupRequest(10, RequestDirection.UP, ENTERING_STEPS, List.of(45)));
+        estimatingElevator.addPickupRequest(new PickupRequest(60, RequestDirection.UP, ENTERING_STEPS, List.of(85)));
+        estimatingElevator.addPickupRequest(new PickupRequest(40, RequestDirection.DOWN, ENTERING_STEPS, List.of(0)));
+        estimatingElevator.addPickupRequest(new PickupRequest(90, RequestDirection.DOWN, ENTERING_STEPS, List.of(55)));
+        estimatingElevator.setState(estimationCase.elevatorState);
+        estimatedRequest = new PickupRequest(estimationCase.requestFloor, estimationCase.requestDirection, ENTERING_STEPS,
+                List.of(estimationCase.requestDirection == RequestDirection.UP ? NUMBER_OF_FLOORS : 0));
+
+        clock = new SimulationClock();
+        steppedElevator = new Elevator(1, 0, ENTERING_STEPS, LEAVING_STEPS, NUMBER_OF_FLOORS, clock);
+        steppedElevator.setActivityRetention(ActivityRetention.lastSteps(1), null);
+        pendingRequest = null;
+        nextRequest = 0;
+    }
+
+    @Benchmark
+    public int estimateNumberOfStepsUntilPickup() {
+        return estimatingElevator.estimateNumberOfStepsUntilPickup(estimatedRequest);
+    }
+
+    // one step of an elevator that keeps picking up and delivering passengers, around it the same bookkeeping
+    // the system does (new requests for an idle elevator, closing door, deliveries of picked up passengers)
+    @Benchmark
+    public int step() {
+        clock.advance();
+        if (!steppedElevator.isDoorClosed() && steppedElevator.getStepsSinceDoorOpened() >= LEAVING_STEPS) {
+            steppedElevator.closeDoor();
+        }
+        if (pendingRequest == null && steppedElevator.getState() == ElevatorState.IDLE && steppedElevator.isDoorClosed()) {
+            pendingRequest = nextPickupRequest();
+            steppedElevator.addPickupRequest(pendingRequest);
+        }
+        steppedElevator.step();
+        if (pendingRequest != null && pendingRequest.isRequestDone()) {
+            steppedElevator.addDeliveryDestinationFloorList(pendingRequest.getDestinationFloors());
+            steppedElevator.removePickupRequest(pendingRequest);
+            pendingRequest = null;
+        }
+        if (steppedElevator.getDeliveryDestinationFloors().contains(steppedElevator.getCurrentFloor())) {
+            steppedElevator.removeDelivery(steppedElevator.getCurrentFloor());
+        }
+        return steppedElevator.getCurrentFloor();
+    }
+
+    private PickupRequest nextPickupRequest() {
+        int floor = REQUEST_FLOORS[nextRequest];
+        nextRequest = (nextRequest + 1) % REQUEST_FLOORS.length;
+        int destination = REQUEST_FLOORS[nextRequest];
+        RequestDirection direction = destination > floor ? RequestDirection.UP : RequestDirection.DOWN;
+        return new PickupRequest(floor, direction, ENTERING_STEPS, List.of(destination));
+    }
+}
@@ -0,0 +1,63 @@
+package com.system;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+// full system step under generated traffic - arrivals grow with the number of elevators, so the load per elevator is the same
+// (traffic between floors - an elevator takes one request per direction at a stop, so lobby peaks make requests pile up
+// and every measured step would be more expensive than the previous one)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ElevatorSystemStepBenchmark {
+
+    private static final int NUMBER_OF_FLOORS = 50;
+    private static final double ARRIVALS_PER_ELEVATOR_AND_STEP = 0.003;
+    // steps performed before the measurement, so that the system is not empty
+    private static final int WARM_UP_STEPS = 2000;
+
+    @Param({"4", "16", "64"})
+    public int numberOfElevators;
+
+    @Param({"FULL", "INCREMENTAL"})
+    public DispatchMode dispatchMode;
+
+    private ElevatorSystem elevatorSystem;
+    private Iterator<ScheduledPickup> requests;
+    private ScheduledPickup nextPickup;
+
+    @Setup
+    public void setUp() {
+        int[] startingFloors = new int[numberOfElevators];
+        for (int i = 0; i < numberOfElevators; i++) {
+            startingFloors[i] = i * NUMBER_OF_FLOORS / numberOfElevators;
+        }
+        elevatorSystem = new ElevatorSystem(numberOfElevators, NUMBER_OF_FLOORS, 20, 2, 2, 2, startingFloors);
+        elevatorSystem.setDispatchMode(dispatchMode);
+        elevatorSystem.setActivityRetention(ActivityRetention.lastSteps(1), null);
+
+        TrafficGenerator generator = new TrafficGenerator(42, NUMBER_OF_FLOORS, TrafficProfile.INTER_FLOOR,
+                ARRIVALS_PER_ELEVATOR_AND_STEP * numberOfElevators);
+        requests = generator.requests(1, Long.MAX_VALUE);
+        nextPickup = requests.next();
+        for (int i = 0; i < WARM_UP_STEPS; i++) {
+            step();
+        }
+    }
+
+    @Benchmark
+    public int step() {
+        int step = elevatorSystem.getCurrentStep() + 1;
+        while (nextPickup.getStep() <= step) {
+            elevatorSystem.pickup(nextPickup.getRequest());
+            nextPickup = requests.next();
+        }
+        elevatorSystem.step();
+        return step;
+    }
+}
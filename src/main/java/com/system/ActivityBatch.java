@@ -0,0 +1,45 @@
+package com.system;
+
+import com.system.activities.ActivityCodec;
+import com.system.activities.ElevatorActivity;
+import lombok.Getter;
+
+// activities of all elevators logged in steps fromStep..toStep (more than one step when quiet steps were skipped at once)
+// activities are kept packed, activity(i) decodes a single one
+public final class ActivityBatch {
+    @Getter
+    private final int fromStep;
+    @Getter
+    private final int toStep;
+    private final int[] elevatorIds;
+    private final long[] headers;
+    private final long[] values;
+
+    ActivityBatch(int fromStep, int toStep, int[] elevatorIds, long[] headers, long[] values) {
+        this.fromStep = fromStep;
+        this.toStep = toStep;
+        this.elevatorIds = elevatorIds;
+        this.headers = headers;
+        this.values = values;
+    }
+
+    public int size() {
+        return elevatorIds.length;
+    }
+
+    public int elevatorId(int index) {
+        return elevatorIds[index];
+    }
+
+    public long header(int index) {
+        return headers[index];
+    }
+
+    public long values(int index) {
+        return values[index];
+    }
+
+    public ElevatorActivity activity(int index) {
+        return ActivityCodec.decode(headers[index], values[index]);
+    }
+}
@@ -0,0 +1,135 @@
+package com.system;
+
+import com.system.activities.ActivityCodec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// appends activities of all elevators to memory-mapped segment files of a fixed size (journal-00000.bin, journal-00001.bin, ...,
+// numbers above 99999 have more digits - journal-100000.bin)
+// segment: header (magic, version, number of records, min step, max step, padding to HEADER_SIZE bytes)
+//          followed by records (elevator id - int, activity header - long, activity values - long)
+// the header is updated with every record, so a segment is readable even if the process was killed
+// a journal opened in a directory that already has segments continues after the last of them (they are never overwritten)
+public class ActivityJournal implements ActivityLogListener, Closeable {
+
+    static final int MAGIC = 0x454C4A31;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 20;
+    static final int RECORD_COUNT_OFFSET = 8;
+    static final int MIN_STEP_OFFSET = 12;
+    static final int MAX_STEP_OFFSET = 16;
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private int segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int recordsInSegment;
+    private boolean closed;
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    public ActivityJournal(Path directory, int segmentSizeInBytes) throws IOException {
+        if (segmentSizeInBytes < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment has to fit at least one record (" + (HEADER_SIZE + RECORD_SIZE) + " bytes).");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = (segmentSizeInBytes - HEADER_SIZE) / RECORD_SIZE;
+        Files.createDirectories(directory);
+        this.segmentNumber = findLastSegmentNumber(directory);
+        if (segmentNumber >= 0) {
+            logger.info("Activity journal in {} continues after existing segment {}.", directory, segmentNumber);
+        }
+        openNextSegment();
+    }
+
+    static Path segmentPath(Path directory, int segmentNumber) {
+        return directory.resolve(String.format("journal-%05d.bin", segmentNumber));
+    }
+
+    static boolean isSegment(Path path) {
+        return path.getFileName().toString().matches("journal-\\d{5,9}\\.bin");
+    }
+
+    // number of a segment accepted by isSegment
+    static int segmentNumber(Path path) {
+        String fileName = path.getFileName().toString();
+        return Integer.parseInt(fileName.substring("journal-".length(), fileName.length() - ".bin".length()));
+    }
+
+    // -1 if there is no segment in the directory
+    private static int findLastSegmentNumber(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(ActivityJournal::isSegment)
+                    .mapToInt(ActivityJournal::segmentNumber)
+                    .max().orElse(-1);
+        }
+    }
+
+    @Override
+    public void onActivity(int elevatorId, long header, long values) {
+        if (closed) {
+            throw new IllegalStateException("Activity journal in " + directory + " is closed.");
+        }
+        if (recordsInSegment == recordsPerSegment) {
+            try {
+                closeSegment();
+                openNextSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not roll over activity journal segment.", e);
+            }
+        }
+        int step = ActivityCodec.step(header);
+        int position = HEADER_SIZE + recordsInSegment * RECORD_SIZE;
+        segment.putInt(position, elevatorId);
+        segment.putLong(position + 4, header);
+        segment.putLong(position + 12, values);
+        if (recordsInSegment == 0 || step < segment.getInt(MIN_STEP_OFFSET)) {
+            segment.putInt(MIN_STEP_OFFSET, step);
+        }
+        if (recordsInSegment == 0 || step > segment.getInt(MAX_STEP_OFFSET)) {
+            segment.putInt(MAX_STEP_OFFSET, step);
+        }
+        recordsInSegment++;
+        segment.putInt(RECORD_COUNT_OFFSET, recordsInSegment);
+    }
+
+    @Override
+    // closing a closed journal does nothing
+    public void close() throws IOException {
+        closed = true;
+        closeSegment();
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        channel = FileChannel.open(segmentPath(directory, segmentNumber),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE);
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putInt(RECORD_COUNT_OFFSET, 0);
+        recordsInSegment = 0;
+        logger.debug("Activity journal segment {} opened.", segmentNumber);
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        segment.force();
+        channel.close();
+        channel = null;
+        segment = null;
+    }
+}
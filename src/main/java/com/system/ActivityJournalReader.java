@@ -0,0 +1,72 @@
+package com.system;
+
+import com.system.activities.ActivityCodec;
+import com.system.activities.ElevatorActivity;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// reads segments written by ActivityJournal - segments whose step range does not overlap the requested one are skipped
+public class ActivityJournalReader {
+
+    private final List<Path> segments;
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    public ActivityJournalReader(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            // by number, not by name (journal-100000.bin follows journal-99999.bin)
+            this.segments = files.filter(ActivityJournal::isSegment).sorted(Comparator.comparingInt(ActivityJournal::segmentNumber)).toList();
+        }
+    }
+
+    public int getNumberOfSegments() {
+        return segments.size();
+    }
+
+    // passes activities of steps from fromStep to toStep (inclusive) to the consumer, in the order they were journaled
+    public void read(int fromStep, int toStep, ActivityLogListener consumer) throws IOException {
+        for (Path path : segments) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (segment.getInt(0) != ActivityJournal.MAGIC || segment.getInt(4) != ActivityJournal.VERSION) {
+                    logger.error("File {} is not an activity journal segment - skipping it.", path);
+                    continue;
+                }
+                int numberOfRecords = segment.getInt(ActivityJournal.RECORD_COUNT_OFFSET);
+                if (numberOfRecords == 0 || segment.getInt(ActivityJournal.MAX_STEP_OFFSET) < fromStep
+                        || segment.getInt(ActivityJournal.MIN_STEP_OFFSET) > toStep) {
+                    continue;
+                }
+                for (int i = 0; i < numberOfRecords; i++) {
+                    int position = ActivityJournal.HEADER_SIZE + i * ActivityJournal.RECORD_SIZE;
+                    long header = segment.getLong(position + 4);
+                    int step = ActivityCodec.step(header);
+                    if (step >= fromStep && step <= toStep) {
+                        consumer.onActivity(segment.getInt(position), header, segment.getLong(position + 12));
+                    }
+                }
+            }
+        }
+    }
+
+    // all journaled activities of given elevator (decoded), in the order they were journaled
+    public List<ElevatorActivity> readElevatorActivities(int elevatorId, int fromStep, int toStep) throws IOException {
+        List<ElevatorActivity> res = new ArrayList<>();
+        read(fromStep, toStep, (id, header, values) -> {
+            if (id == elevatorId) {
+                res.add(ActivityCodec.decode(header, values));
+            }
+        });
+        return res;
+    }
+}
@@ -0,0 +1,7 @@
+package com.system;
+
+// receives every activity logged by elevators in packed form (see ActivityCodec)
+// called on the thread performing the step, right after the activity is appended to the elevator's log
+public interface ActivityLogListener {
+    void onActivity(int elevatorId, long header, long values);
+}
@@ -0,0 +1,93 @@
+package com.system;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// pushes activities of every step to subscribers as a single ActivityBatch (steps without activities are not published)
+// every subscriber has its own buffer of given capacity, when it is full the step either waits (BLOCK)
+// or the batch is not delivered to this subscriber (DROP)
+public class ActivityPublisher implements ActivityLogListener, Flow.Publisher<ActivityBatch>, AutoCloseable {
+
+    public enum OverflowPolicy {
+        DROP, // slow subscriber misses batches, simulation never waits
+        BLOCK // simulation waits until slow subscriber has room in its buffer
+    }
+
+    private final SubmissionPublisher<ActivityBatch> publisher;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong droppedBatches;
+    private int[] elevatorIds;
+    private long[] headers;
+    private long[] values;
+    private int size;
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    ActivityPublisher(Executor executor, int bufferCapacity, OverflowPolicy overflowPolicy) {
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.droppedBatches = new AtomicLong();
+        this.elevatorIds = new int[16];
+        this.headers = new long[16];
+        this.values = new long[16];
+        this.size = 0;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ActivityBatch> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void onActivity(int elevatorId, long header, long values) {
+        if (size == elevatorIds.length) {
+            this.elevatorIds = Arrays.copyOf(elevatorIds, size * 2);
+            this.headers = Arrays.copyOf(headers, size * 2);
+            this.values = Arrays.copyOf(this.values, size * 2);
+        }
+        elevatorIds[size] = elevatorId;
+        headers[size] = header;
+        this.values[size] = values;
+        size++;
+    }
+
+    // publishes activities collected since the last call
+    void publish(int fromStep, int toStep) {
+        if (size == 0 || publisher.isClosed()) {
+            size = 0;
+            return;
+        }
+        ActivityBatch batch = new ActivityBatch(fromStep, toStep, Arrays.copyOf(elevatorIds, size),
+                Arrays.copyOf(headers, size), Arrays.copyOf(values, size));
+        size = 0;
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            publisher.submit(batch);
+        } else {
+            publisher.offer(batch, (subscriber, droppedBatch) -> {
+                droppedBatches.incrementAndGet();
+                return false;
+            });
+        }
+    }
+
+    // number of (batch, subscriber) deliveries dropped because of a full buffer
+    public long getDroppedBatches() {
+        return droppedBatches.get();
+    }
+
+    public int getNumberOfSubscribers() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    // completes all subscriptions, activities of following steps are not published
+    @Override
+    public void close() {
+        publisher.close();
+        logger.debug("Activity publisher closed, {} batches were dropped.", droppedBatches.get());
+    }
+}
@@ -0,0 +1,50 @@
+package com.system;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+// decides which activities are kept in elevators' activity logs, the older ones are evicted
+@Getter(AccessLevel.PACKAGE)
+public final class ActivityRetention {
+
+    enum Kind {
+        UNLIMITED, // every activity is kept
+        LAST_STEPS, // activities of the last limit steps that have any activity
+        LAST_ACTIVITIES, // the last limit activities
+        STEP_WINDOW // activities of the last limit steps of the simulation (steps without activities count as well)
+    }
+
+    private static final ActivityRetention UNLIMITED = new ActivityRetention(Kind.UNLIMITED, Integer.MAX_VALUE);
+
+    private final Kind kind;
+    private final int limit;
+
+    private ActivityRetention(Kind kind, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Retention limit has to be at least 1.");
+        }
+        this.kind = kind;
+        this.limit = limit;
+    }
+
+    public static ActivityRetention unlimited() {
+        return UNLIMITED;
+    }
+
+    public static ActivityRetention lastSteps(int numberOfSteps) {
+        return new ActivityRetention(Kind.LAST_STEPS, numberOfSteps);
+    }
+
+    public static ActivityRetention lastActivities(int numberOfActivities) {
+        return new ActivityRetention(Kind.LAST_ACTIVITIES, numberOfActivities);
+    }
+
+    public static ActivityRetention stepWindow(int numberOfSteps) {
+        return new ActivityRetention(Kind.STEP_WINDOW, numberOfSteps);
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.UNLIMITED ? "ActivityRetention(UNLIMITED)" : "ActivityRetention(" + kind + ", " + limit + ")";
+    }
+}
@@ -0,0 +1,6 @@
+package com.system;
+
+public enum AssignmentEngine {
+    GREEDY, // repeatedly picks the minimum of estimated steps matrix and re-estimates the chosen elevator
+    MIN_COST // estimates once, then finds assignment with minimal total estimated steps (falls back to GREEDY when out of time)
+}
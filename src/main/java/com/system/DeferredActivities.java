@@ -0,0 +1,40 @@
+package com.system;
+
+import java.util.Arrays;
+
+// calls of activity listeners of one elevator buffered while its part of a step runs on a worker thread,
+// made on the thread performing the step in the order they happened (arrays are reused, so it allocates only to grow)
+class DeferredActivities {
+
+    private ActivityLogListener[] listeners;
+    private long[] headers;
+    private long[] values;
+    private int size;
+
+    DeferredActivities() {
+        this.listeners = new ActivityLogListener[8];
+        this.headers = new long[8];
+        this.values = new long[8];
+        this.size = 0;
+    }
+
+    void add(ActivityLogListener listener, long header, long values) {
+        if (size == listeners.length) {
+            this.listeners = Arrays.copyOf(listeners, size * 2);
+            this.headers = Arrays.copyOf(headers, size * 2);
+            this.values = Arrays.copyOf(this.values, size * 2);
+        }
+        listeners[size] = listener;
+        headers[size] = header;
+        this.values[size] = values;
+        size++;
+    }
+
+    void flush(int elevatorId) {
+        for (int i = 0; i < size; i++) {
+            listeners[i].onActivity(elevatorId, headers[i], values[i]);
+            listeners[i] = null;
+        }
+        size = 0;
+    }
+}
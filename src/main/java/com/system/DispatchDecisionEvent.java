@@ -0,0 +1,40 @@
+package com.system;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event of a pickup request assigned to an elevator, together with the best elevator that was not chosen
+@Name("com.system.DispatchDecision")
+@Label("Dispatch Decision")
+@Category("Elevator System")
+@Description("Pickup request assigned to an elevator, with estimated steps of the chosen elevator and of the runner-up")
+@StackTrace(false)
+class DispatchDecisionEvent extends jdk.jfr.Event {
+    @Label("Step")
+    int step;
+
+    @Label("Request Floor")
+    int requestFloor;
+
+    @Label("Request Direction")
+    String requestDirection;
+
+    @Label("Assignment Engine")
+    String assignmentEngine;
+
+    @Label("Elevator")
+    int elevator;
+
+    @Label("Estimated Steps")
+    int estimatedSteps;
+
+    @Label("Runner-up Elevator")
+    @Description("Elevator with the lowest estimate among the other ones (-1 if there is no other working elevator)")
+    int runnerUpElevator;
+
+    @Label("Runner-up Estimated Steps")
+    int runnerUpEstimatedSteps;
+}
@@ -0,0 +1,6 @@
+package com.system;
+
+public enum DispatchMode {
+    FULL, // every step clears all assignments and assigns every pickup request from scratch
+    INCREMENTAL // assignments are kept between steps, only new requests and changed elevators are re-evaluated
+}
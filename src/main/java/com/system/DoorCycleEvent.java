@@ -0,0 +1,31 @@
+package com.system;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event of elevator's door that has been closed, with the number of steps it was open
+@Name("com.system.DoorCycle")
+@Label("Door Cycle")
+@Category("Elevator System")
+@Description("Elevator's door opened and closed again")
+@StackTrace(false)
+class DoorCycleEvent extends jdk.jfr.Event {
+    @Label("Elevator")
+    int elevator;
+
+    @Label("Floor")
+    int floor;
+
+    @Label("Opened Step")
+    int openedStep;
+
+    @Label("Closed Step")
+    int closedStep;
+
+    @Label("Dwell Steps")
+    @Description("Steps the door was open")
+    int dwellSteps;
+}
@@ -0,0 +1,28 @@
+package com.system;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event of elevator's door that has been opened (its closing is recorded as DoorCycleEvent)
+@Name("com.system.DoorOpened")
+@Label("Door Opened")
+@Category("Elevator System")
+@Description("Elevator's door opened at a floor")
+@StackTrace(false)
+class DoorOpenedEvent extends jdk.jfr.Event {
+    @Label("Elevator")
+    int elevator;
+
+    @Label("Floor")
+    int floor;
+
+    @Label("Step")
+    int step;
+
+    @Label("State")
+    @Description("State of the elevator when the door opened")
+    String state;
+}
@@ -1,243 +1,438 @@
 package com.system;
 
 import com.system.activities.*;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
-import lombok.ToString;
 import java.util.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+// view of elevator's entry in its bank - current floor, state, door and floors to stop at are kept in bank's arrays,
+// pickup requests and the activity log are kept here
 @Getter
-@Setter
-@ToString
 class Elevator {
 
     private final int id;
-    @ToString.Exclude
     private final int estimatedEnteringSteps;
-    @ToString.Exclude
     private final int estimatedLeavingSteps;
-    @ToString.Exclude
     private final int numberOfFloors;
-    private int stepsSinceDoorOpened;
-    private int currentFloor;
-    private boolean isDoorClosed;
-    private ElevatorState state;
-    private final Set<Integer> deliveryDestinationFloors;
+    @Getter(AccessLevel.NONE)
+    private final ElevatorBank bank;
+    @Getter(AccessLevel.NONE)
+    private final int index;
+    @Getter(AccessLevel.NONE)
+    private final FloorBitmap deliveryDestinationFloors;
+    @Getter(AccessLevel.NONE)
     private final Set<PickupRequest> pickupRequestsToHandle;
-    @ToString.Exclude
-    private final Map<Integer, List<ElevatorActivity>> activityLogsMap;
+    // floors of pickupRequestsToHandle split by direction and together (bank's bitmap), kept in sync with the set
+    @Getter(AccessLevel.NONE)
+    private final FloorCounter upPickupFloors;
+    @Getter(AccessLevel.NONE)
+    private final FloorCounter downPickupFloors;
+    @Getter(AccessLevel.NONE)
+    private final FloorBitmap pickupFloors;
+    @Getter(AccessLevel.NONE)
+    private final ElevatorActivityLog activityLog;
+    @Getter(AccessLevel.NONE)
+    private final List<ActivityLogListener> activityLogListeners;
+    @Getter(AccessLevel.NONE)
+    private final SimulationClock clock;
+    // while deferred (elevator's part of a step runs on a worker thread), listeners are called by flushDeferredActivities()
+    @Getter(AccessLevel.NONE)
+    private final DeferredActivities deferredActivities;
+    @Getter(AccessLevel.NONE)
+    private boolean activitiesDeferred;
 
     protected static final Logger logger = LogManager.getLogger();
 
     public Elevator(int id, int currentFloor, int estimatedEnteringSteps, int estimatedLeavingSteps, int numberOfFloors) {
+        this(id, currentFloor, estimatedEnteringSteps, estimatedLeavingSteps, numberOfFloors, new SimulationClock());
+    }
+
+    // a standalone elevator is the only one in its bank
+    public Elevator(int id, int currentFloor, int estimatedEnteringSteps, int estimatedLeavingSteps, int numberOfFloors, SimulationClock clock) {
+        this(new ElevatorBank(1, numberOfFloors, clock), 0, id, currentFloor, estimatedEnteringSteps, estimatedLeavingSteps, numberOfFloors);
+    }
+
+    Elevator(ElevatorBank bank, int index, int id, int currentFloor, int estimatedEnteringSteps, int estimatedLeavingSteps, int numberOfFloors) {
         this.id = id;
-        this.currentFloor = currentFloor;
-        this.isDoorClosed = true;
-        this.stepsSinceDoorOpened = 0;
         this.numberOfFloors = numberOfFloors;
         this.estimatedEnteringSteps = estimatedEnteringSteps;
         this.estimatedLeavingSteps = estimatedLeavingSteps;
-        this.state = ElevatorState.IDLE;
-        this.deliveryDestinationFloors = new HashSet<>();
+        this.bank = bank;
+        this.index = index;
+        this.deliveryDestinationFloors = new FloorBitmap(bank, ElevatorBank.DELIVERIES, index);
         this.pickupRequestsToHandle = new HashSet<>();
-        this.activityLogsMap = new HashMap<>();
+        this.upPickupFloors = new FloorCounter(numberOfFloors);
+        this.downPickupFloors = new FloorCounter(numberOfFloors);
+        this.pickupFloors = new FloorBitmap(bank, ElevatorBank.PICKUPS, index);
+        this.activityLog = new ElevatorActivityLog(id);
+        this.activityLogListeners = new ArrayList<>();
+        this.clock = bank.getClock();
+        this.deferredActivities = new DeferredActivities();
+        this.activitiesDeferred = false;
+        bank.attach(index, this);
+        bank.currentFloors[index] = currentFloor;
+    }
+
+    public int getCurrentFloor() {
+        return bank.currentFloors[index];
+    }
+
+    public void setCurrentFloor(int currentFloor) {
+        bank.currentFloors[index] = currentFloor;
+    }
+
+    public ElevatorState getState() {
+        return bank.getState(index);
+    }
+
+    public void setState(ElevatorState state) {
+        bank.setState(index, state);
+    }
+
+    public boolean isDoorClosed() {
+        return bank.doorClosed[index];
+    }
+
+    public void setDoorClosed(boolean isDoorClosed) {
+        bank.doorClosed[index] = isDoorClosed;
+    }
+
+    public int getStepsSinceDoorOpened() {
+        return bank.stepsSinceDoorOpened[index];
+    }
+
+    public void setStepsSinceDoorOpened(int stepsSinceDoorOpened) {
+        bank.stepsSinceDoorOpened[index] = stepsSinceDoorOpened;
+    }
+
+    // set whenever elevator changed direction, finished a stop or broke - its assignments need to be re-evaluated
+    public boolean isDispatchStateChanged() {
+        return bank.dispatchStateChanged[index];
+    }
+
+    public void setDispatchStateChanged(boolean dispatchStateChanged) {
+        bank.dispatchStateChanged[index] = dispatchStateChanged;
+    }
+
+    public Set<Integer> getDeliveryDestinationFloors() {
+        return deliveryDestinationFloors.asSet();
+    }
+
+    public Set<PickupRequest> getPickupRequestsToHandle() {
+        return Collections.unmodifiableSet(pickupRequestsToHandle);
     }
 
     public void addPickupRequest(PickupRequest request) {
-        pickupRequestsToHandle.add(request);
-        logElevatorActivity(new AddPickupRequestActivity(state, request.getFloor()));
+        if (pickupRequestsToHandle.add(request)) {
+            pickupFloors(request.getDirection()).add(request.getFloor());
+            pickupFloors.addIfAbsent(request.getFloor());
+        }
+        logElevatorActivity(clock.getCurrentStep(), ActivityType.ADD_PICKUP_REQUEST, request.getFloor(), 0);
+    }
+
+    // requests are compared by identity - done requests have already changed their hash code
+    public void removePickupRequest(PickupRequest request) {
+        if (pickupRequestsToHandle.removeIf(x -> x == request)) {
+            pickupFloors(request.getDirection()).remove(request.getFloor());
+            if (!upPickupFloors.contains(request.getFloor()) && !downPickupFloors.contains(request.getFloor())) {
+                pickupFloors.remove(request.getFloor());
+            }
+        }
     }
 
     public void clearPickupRequests() {
+        clearPickupRequestsAndFloors();
+        logElevatorActivity(clock.getCurrentStep(), ActivityType.CLEAR_PICKUP_REQUESTS, 0, 0);
+    }
+
+    private void clearPickupRequestsAndFloors() {
         pickupRequestsToHandle.clear();
-        logElevatorActivity(new ClearPickupRequestsActivity(state));
+        upPickupFloors.clear();
+        downPickupFloors.clear();
+        pickupFloors.clear();
     }
 
-    public void addDeliveryDestinationFloorList(List<Integer> destinationFloors) {
-        deliveryDestinationFloors.addAll(destinationFloors);
+    private FloorCounter pickupFloors(RequestDirection direction) {
+        return direction == RequestDirection.UP ? upPickupFloors : downPickupFloors;
     }
 
-    public void removeDelivery(int floor) {
-        deliveryDestinationFloors.remove(floor);
+    private int countPickups(int fromFloor, int toFloor) {
+        return upPickupFloors.count(fromFloor, toFloor) + downPickupFloors.count(fromFloor, toFloor);
     }
 
-    private void logElevatorActivity(ElevatorActivity activity) {
-        if (activityLogsMap.containsKey(ElevatorSystem.getCurrentStep())) {
-            List<ElevatorActivity> currentActivityList = new ArrayList<>(activityLogsMap.get(ElevatorSystem.getCurrentStep()));
-            currentActivityList.add(activity);
-            activityLogsMap.put(ElevatorSystem.getCurrentStep(), currentActivityList);
-        } else {
-            activityLogsMap.put(ElevatorSystem.getCurrentStep(), List.of(activity));
+    private boolean anyPickup(int fromFloor, int toFloor) {
+        return upPickupFloors.any(fromFloor, toFloor) || downPickupFloors.any(fromFloor, toFloor);
+    }
+
+    public int getNumberOfDeliveries() {
+        return deliveryDestinationFloors.count(0, FloorCounter.NO_LIMIT);
+    }
+
+    public int getNumberOfPickupRequests() {
+        return pickupRequestsToHandle.size();
+    }
+
+    public void addDeliveryDestinationFloorList(List<Integer> destinationFloors) {
+        for (int i = 0; i < destinationFloors.size(); i++) {
+            deliveryDestinationFloors.addIfAbsent(destinationFloors.get(i));
         }
     }
 
-    // checks elevator state and performs elevator movement
-    private void moveElevator() {
-        switch (state) {
-            case UP -> {
-                if (currentFloor == numberOfFloors) {
-                    logger.error("Elevator cannot go up anymore.");
-                }
-                currentFloor++;
-                logElevatorActivity(new MoveActivity(state, currentFloor - 1, currentFloor));
-            }
-            case DOWN -> {
-                if (currentFloor == 0) {
-                    logger.error("Elevator cannot go below ground level.");
-                }
-                currentFloor--;
-                logElevatorActivity(new MoveActivity(state, currentFloor + 1, currentFloor));
+    public boolean isDeliveryFloor(int floor) {
+        return deliveryDestinationFloors.contains(floor);
+    }
+
+    // destinations of passengers picked up (requests done, but not removed yet) become deliveries
+    public void addDeliveriesOfDonePickups() {
+        for (PickupRequest request : pickupRequestsToHandle) {
+            if (request.isRequestDone()) {
+                addDeliveryDestinationFloorList(request.getDestinationFloors());
             }
         }
     }
 
-    private void openDoor() {
-        if (!isDoorClosed) {
-            logger.warn("Elevator is trying to open the door that were already opened.");
+    // done pickup request of given floor (null if none)
+    public PickupRequest findDonePickupRequest(int floor) {
+        for (PickupRequest request : pickupRequestsToHandle) {
+            if (request.isRequestDone() && request.getFloor() == floor) {
+                return request;
+            }
         }
-        isDoorClosed = false;
-        logElevatorActivity(new DoorOpenedActivity(state, currentFloor));
+        return null;
     }
 
-    public void closeDoor() {
-        if (isDoorClosed) {
-            logger.warn("Elevator's door is already closed - trying to close them once again.");
-        }
-        isDoorClosed = true;
-        logElevatorActivity(new DoorClosedActivity(state, currentFloor, stepsSinceDoorOpened));
-        stepsSinceDoorOpened = 0;
+    public void removeDelivery(int floor) {
+        deliveryDestinationFloors.remove(floor);
     }
 
-    // elevator is said to be broken, when door is open for too long (above user-specified threshold)
-    public boolean isBroken(int criticalStepsSinceElevatorDoorOpened) {
-        return stepsSinceDoorOpened > criticalStepsSinceElevatorDoorOpened;
+    // read-only view of the activity log: step -> activities performed in this step
+    public Map<Integer, List<ElevatorActivity>> getActivityLogsMap() {
+        return activityLog.asMap();
     }
 
-    public void notifyBrokenElevator() {
-        deliveryDestinationFloors.clear();
-        pickupRequestsToHandle.clear();
-        state = ElevatorState.IDLE;
-        logElevatorActivity(new ElevatorBrokenActivity(state));
+    // spill listener (null - none) receives activities evicted from the activity log
+    public void setActivityRetention(ActivityRetention retention, ActivityLogListener spillListener) {
+        activityLog.setRetention(retention, spillListener == null ? null : (elevatorId, header, values) -> notifyListener(spillListener, header, values));
     }
 
-    // updates elevator state based on actions that elevator still needs to perform
-    private void updateState() {
-        if (deliveryDestinationFloors.isEmpty() && pickupRequestsToHandle.isEmpty()) {
-            state = ElevatorState.IDLE;
-            return;
-        }
+    // called by the system at the end of every step (also after skipped quiet steps)
+    void evictActivitiesUpTo(int currentStep) {
+        activityLog.evictUpTo(currentStep);
+    }
 
-        boolean higherDelivery = deliveryDestinationFloors.stream().anyMatch(x -> x > currentFloor);
-        boolean higherPickup = pickupRequestsToHandle.stream().map(PickupRequest::getFloor).anyMatch(x -> x > currentFloor);
-        boolean lowerDelivery = deliveryDestinationFloors.stream().anyMatch(x -> x < currentFloor);
-        boolean lowerPickup = pickupRequestsToHandle.stream().map(PickupRequest::getFloor).anyMatch(x -> x < currentFloor);
+    public void addActivityLogListener(ActivityLogListener listener) {
+        activityLogListeners.add(listener);
+    }
 
-        switch (state) {
-            case UP -> {
-                if (higherDelivery || higherPickup) {
-                    // do nothing
-                    return;
-                } else if (lowerDelivery || lowerPickup) {
-                    state = ElevatorState.DOWN;
-                }
-            }
-            case DOWN -> {
-                if (lowerDelivery || lowerPickup) {
-                    // do nothing
-                    return;
-                } else if (higherDelivery || higherPickup) {
-                    state = ElevatorState.UP;
-                }
-            }
-            case IDLE -> {
-                if (higherDelivery) {
-                    state = ElevatorState.UP;
-                } else if (lowerDelivery) {
-                    state = ElevatorState.DOWN;
-                } else if (higherPickup) {
-                    state = ElevatorState.UP;
-                } else if (lowerPickup) {
-                    state = ElevatorState.DOWN;
-                }
+    // activities are logged in packed form, no activity object is created
+    void logElevatorActivity(int step, ActivityType type, int firstValue, int secondValue) {
+        ElevatorState state = getState();
+        activityLog.append(step, type, state, firstValue, secondValue);
+        if (!activityLogListeners.isEmpty()) {
+            long header = ActivityCodec.header(step, type, state);
+            long values = ActivityCodec.values(firstValue, secondValue);
+            for (int i = 0; i < activityLogListeners.size(); i++) {
+                notifyListener(activityLogListeners.get(i), header, values);
             }
         }
     }
 
-    // performs actions required for current floor based on elevator's state
-    private void handleFloor() {
-        if (state == ElevatorState.IDLE) {
-            return;
+    private void notifyListener(ActivityLogListener listener, long header, long values) {
+        if (activitiesDeferred) {
+            deferredActivities.add(listener, header, values);
+        } else {
+            listener.onActivity(id, header, values);
+        }
+    }
+
+    void setActivitiesDeferred(boolean activitiesDeferred) {
+        this.activitiesDeferred = activitiesDeferred;
+    }
+
+    // calls listeners with activities logged while they were deferred, in the order they were logged
+    void flushDeferredActivities() {
+        deferredActivities.flush(id);
+    }
+
+    public void closeDoor() {
+        int currentFloor = getCurrentFloor();
+        int stepsSinceDoorOpened = getStepsSinceDoorOpened();
+        if (isDoorClosed()) {
+            logger.warn(LogMarkers.HOT_PATH, "Elevator {}'s door is already closed - trying to close them once again.", id);
+        }
+        setDoorClosed(true);
+        logElevatorActivity(clock.getCurrentStep(), ActivityType.DOOR_CLOSED, currentFloor, stepsSinceDoorOpened);
+        DoorCycleEvent event = new DoorCycleEvent();
+        if (event.shouldCommit()) {
+            event.elevator = id;
+            event.floor = currentFloor;
+            event.openedStep = clock.getCurrentStep() - stepsSinceDoorOpened;
+            event.closedStep = clock.getCurrentStep();
+            event.dwellSteps = stepsSinceDoorOpened;
+            event.commit();
         }
+        setStepsSinceDoorOpened(0);
+        setDispatchStateChanged(true);
+    }
 
+    // elevator is said to be broken, when door is open for too long (above user-specified threshold)
+    public boolean isBroken(int criticalStepsSinceElevatorDoorOpened) {
+        return getStepsSinceDoorOpened() > criticalStepsSinceElevatorDoorOpened;
+    }
+
+    public void notifyBrokenElevator() {
+        deliveryDestinationFloors.clear();
+        clearPickupRequestsAndFloors();
+        setState(ElevatorState.IDLE);
+        setDispatchStateChanged(true);
+        logElevatorActivity(clock.getCurrentStep(), ActivityType.ELEVATOR_BROKEN, 0, 0);
+    }
+
+    // performs actions required for current floor, when there is a pickup request at it (called by the bank's step)
+    void handleFloorWithPickups() {
+        ElevatorState state = getState();
+        int currentFloor = getCurrentFloor();
+        RequestDirection sameDirection = state == ElevatorState.UP ? RequestDirection.UP : RequestDirection.DOWN;
+        RequestDirection oppositeDirection = state == ElevatorState.UP ? RequestDirection.DOWN : RequestDirection.UP;
         boolean isDeliveryFloor = deliveryDestinationFloors.contains(currentFloor);
-        Optional<PickupRequest> pickupInSameDirection = pickupRequestsToHandle.stream()
-                .filter(x -> x.getFloor() == currentFloor &&
-                        ((state == ElevatorState.UP && x.getDirection() == RequestDirection.UP) ||
-                        (state == ElevatorState.DOWN && x.getDirection() == RequestDirection.DOWN))).findFirst();
-        Optional<PickupRequest> pickupInOppositeDirection = pickupRequestsToHandle.stream()
-                .filter(x -> x.getFloor() == currentFloor &&
-                        ((state == ElevatorState.UP && x.getDirection() == RequestDirection.DOWN) ||
-                                (state == ElevatorState.DOWN && x.getDirection() == RequestDirection.UP))).findFirst();
+        PickupRequest pickupInSameDirection = findPickupRequest(currentFloor, sameDirection);
+        PickupRequest pickupInOppositeDirection = findPickupRequest(currentFloor, oppositeDirection);
         boolean openDoorForOppositePickup = false;
         switch (state) {
             case UP -> {
-                boolean noDeliveriesAbove = deliveryDestinationFloors.stream().noneMatch(x -> x > currentFloor);
-                boolean noPickupsAbove = pickupRequestsToHandle.stream().noneMatch(x -> x.getFloor() > currentFloor);
+                boolean noDeliveriesAbove = !deliveryDestinationFloors.any(currentFloor + 1, FloorCounter.NO_LIMIT);
+                boolean noPickupsAbove = !anyPickup(currentFloor + 1, FloorCounter.NO_LIMIT);
                 if (noDeliveriesAbove && noPickupsAbove) {
                     openDoorForOppositePickup = true;
                 }
             }
             case DOWN -> {
-                boolean noDeliveriesBelow = deliveryDestinationFloors.stream().noneMatch(x -> x < currentFloor);
-                boolean noPickupsBelow = pickupRequestsToHandle.stream().noneMatch(x -> x.getFloor() < currentFloor);
+                boolean noDeliveriesBelow = !deliveryDestinationFloors.any(0, currentFloor - 1);
+                boolean noPickupsBelow = !anyPickup(0, currentFloor - 1);
                 if (noDeliveriesBelow && noPickupsBelow) {
                     openDoorForOppositePickup = true;
                 }
             }
         }
 
-        if (isDeliveryFloor || pickupInSameDirection.isPresent() || (openDoorForOppositePickup && pickupInOppositeDirection.isPresent())) {
-            openDoor();
+        if (isDeliveryFloor || pickupInSameDirection != null || (openDoorForOppositePickup && pickupInOppositeDirection != null)) {
+            bank.openDoor(index);
+        }
+        if (pickupInSameDirection != null) {
+            pickupInSameDirection.setRequestDone(true);
+            pickupInSameDirection.setPickedUpStep(clock.getCurrentStep());
+        }
+        if (openDoorForOppositePickup && pickupInOppositeDirection != null) {
+            pickupInOppositeDirection.setRequestDone(true);
+            pickupInOppositeDirection.setPickedUpStep(clock.getCurrentStep());
+        }
+    }
+
+    // the set is searched only when the floor index says there is a matching request
+    private PickupRequest findPickupRequest(int floor, RequestDirection direction) {
+        if (!pickupFloors(direction).contains(floor)) {
+            return null;
         }
-        pickupInSameDirection.ifPresent(x -> x.setRequestDone(true));
-        if (openDoorForOppositePickup) {
-            pickupInOppositeDirection.ifPresent(x -> x.setRequestDone(true));
+        for (PickupRequest request : pickupRequestsToHandle) {
+            if (request.getFloor() == floor && request.getDirection() == direction) {
+                return request;
+            }
         }
+        return null;
     }
 
     // updates elevator's state, if door is closed performs movement, handles floor and updates state once again
+    // (allocates nothing - activities are packed into the log, whose arrays grow only if its retention keeps more of them)
     public void step() {
-        updateState();
-        if (isDoorClosed) {
-            moveElevator();
-            handleFloor();
-        } else {
-            stepsSinceDoorOpened++;
+        bank.step(index);
+    }
+
+    // number of following steps in which elevator can only travel towards its next stop or wait with open door
+    // (0 - something may change in the next step, Integer.MAX_VALUE - elevator stays idle until it gets a new request)
+    public int countQuietSteps(int criticalStepsSinceElevatorDoorOpened) {
+        ElevatorState state = getState();
+        int currentFloor = getCurrentFloor();
+        if (isBroken(criticalStepsSinceElevatorDoorOpened) || bank.nextState(index) != state.ordinal()) {
+            return 0;
         }
-        updateState();
+        if (!isDoorClosed()) {
+            return criticalStepsSinceElevatorDoorOpened - getStepsSinceDoorOpened();
+        }
+        return switch (state) {
+            case UP -> {
+                int nextStop = nearestStop(currentFloor + 1, FloorCounter.NO_LIMIT, true);
+                yield nextStop == -1 ? 0 : nextStop - currentFloor - 1;
+            }
+            case DOWN -> {
+                int nextStop = nearestStop(0, currentFloor - 1, false);
+                yield nextStop == -1 ? 0 : currentFloor - nextStop - 1;
+            }
+            case IDLE -> Integer.MAX_VALUE;
+        };
+    }
+
+    // performs given number of quiet steps at once, logs the same activities as single steps would
+    public void skipQuietSteps(int steps) {
+        if (!isDoorClosed()) {
+            setStepsSinceDoorOpened(getStepsSinceDoorOpened() + steps);
+            return;
+        }
+        int firstStep = clock.getCurrentStep() + 1;
+        int currentFloor = getCurrentFloor();
+        for (int i = 0; i < steps; i++) {
+            switch (getState()) {
+                case UP -> {
+                    setCurrentFloor(++currentFloor);
+                    logElevatorActivity(firstStep + i, ActivityType.MOVE, currentFloor - 1, currentFloor);
+                }
+                case DOWN -> {
+                    setCurrentFloor(--currentFloor);
+                    logElevatorActivity(firstStep + i, ActivityType.MOVE, currentFloor + 1, currentFloor);
+                }
+            }
+        }
+    }
+
+    // nearest floor with a delivery or a pickup in given range (-1 if none)
+    private int nearestStop(int fromFloor, int toFloor, boolean lowest) {
+        if (!lowest) {
+            // -1 (no stop) is lower than any floor
+            int delivery = deliveryDestinationFloors.max(fromFloor, toFloor);
+            int upPickup = upPickupFloors.max(fromFloor, toFloor);
+            int downPickup = downPickupFloors.max(fromFloor, toFloor);
+            return Math.max(delivery, Math.max(upPickup, downPickup));
+        }
+        int delivery = deliveryDestinationFloors.min(fromFloor, toFloor);
+        int upPickup = upPickupFloors.min(fromFloor, toFloor);
+        int downPickup = downPickupFloors.min(fromFloor, toFloor);
+        int res = Math.min(delivery == -1 ? Integer.MAX_VALUE : delivery,
+                Math.min(upPickup == -1 ? Integer.MAX_VALUE : upPickup, downPickup == -1 ? Integer.MAX_VALUE : downPickup));
+        return res == Integer.MAX_VALUE ? -1 : res;
     }
 
     // given all actions elevator needs to perform, estimates the time elevator needs to pick up given request
     public int estimateNumberOfStepsUntilPickup(PickupRequest request) {
+        ElevatorState state = getState();
+        int currentFloor = getCurrentFloor();
+        boolean isDoorClosed = isDoorClosed();
+        int stepsSinceDoorOpened = getStepsSinceDoorOpened();
         int estimatedStepsToMoveIfDoorOpen = Math.max((Math.max(estimatedEnteringSteps, estimatedLeavingSteps) - stepsSinceDoorOpened), 0);
-        int distanceBetweenFloors = Math.abs(currentFloor - request.getFloor());
+        int requestFloor = request.getFloor();
+        int distanceBetweenFloors = Math.abs(currentFloor - requestFloor);
+        FloorBitmap deliveries = deliveryDestinationFloors;
 
         if (state == ElevatorState.IDLE) {
             return distanceBetweenFloors;
         }
 
         // (1) elevator up, request up, currentFloor < requestFloor
-        if (state == ElevatorState.UP && request.getDirection() == RequestDirection.UP && request.getFloor() > currentFloor) {
-            long deliveriesBetween = deliveryDestinationFloors.stream()
-                    .filter(x -> x > currentFloor && x < request.getFloor())
-                    .count();
-            long pickupsSameDirectionBetween = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() > currentFloor && x.getFloor() < request.getFloor() && x.getDirection() == RequestDirection.UP)
-                    .count();
-            int result = (int) (deliveriesBetween * estimatedLeavingSteps +
-                    pickupsSameDirectionBetween * estimatedEnteringSteps + distanceBetweenFloors);
+        if (state == ElevatorState.UP && request.getDirection() == RequestDirection.UP && requestFloor > currentFloor) {
+            int deliveriesBetween = deliveries.count(currentFloor + 1, requestFloor - 1);
+            int pickupsSameDirectionBetween = upPickupFloors.count(currentFloor + 1, requestFloor - 1);
+            int result = deliveriesBetween * estimatedLeavingSteps +
+                    pickupsSameDirectionBetween * estimatedEnteringSteps + distanceBetweenFloors;
             if (!isDoorClosed) {
                 return result + estimatedStepsToMoveIfDoorOpen;
             } else {
@@ -246,15 +441,11 @@ class Elevator {
         }
 
         // (2) elevator down, request down, currentFloor > requestFloor
-        if (state == ElevatorState.DOWN && request.getDirection() == RequestDirection.DOWN && request.getFloor() < currentFloor) {
-            long deliveriesBetween = deliveryDestinationFloors.stream()
-                    .filter(x -> x < currentFloor && x > request.getFloor())
-                    .count();
-            long pickupsSameDirectionBetween = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() < currentFloor && x.getFloor() > request.getFloor() && x.getDirection() == RequestDirection.DOWN)
-                    .count();
-            int result = (int) (deliveriesBetween * estimatedLeavingSteps +
-                    pickupsSameDirectionBetween * estimatedEnteringSteps + distanceBetweenFloors);
+        if (state == ElevatorState.DOWN && request.getDirection() == RequestDirection.DOWN && requestFloor < currentFloor) {
+            int deliveriesBetween = deliveries.count(requestFloor + 1, currentFloor - 1);
+            int pickupsSameDirectionBetween = downPickupFloors.count(requestFloor + 1, currentFloor - 1);
+            int result = deliveriesBetween * estimatedLeavingSteps +
+                    pickupsSameDirectionBetween * estimatedEnteringSteps + distanceBetweenFloors;
             if (!isDoorClosed) {
                 return result + estimatedStepsToMoveIfDoorOpen;
             } else {
@@ -263,48 +454,21 @@ class Elevator {
         }
 
         // (3) elevator up, request down, currentFloor < requestFloor
-        if (state == ElevatorState.UP && request.getDirection() == RequestDirection.DOWN && request.getFloor() > currentFloor) {
-            boolean pessimisticPickup = pickupRequestsToHandle.stream()
-                    .anyMatch(x -> x.getFloor() > currentFloor && x.getDirection() == RequestDirection.UP);
-            Optional<Integer> maxDeliveryFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x > currentFloor)
-                    .max(Integer::compareTo);
-            Optional<Integer> maxPickupFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() > currentFloor && x.getDirection() == RequestDirection.DOWN)
-                    .map(PickupRequest::getFloor)
-                    .max(Integer::compareTo);
-
-            int maxFloorToTravel;
-            if (pessimisticPickup) {
-                maxFloorToTravel = numberOfFloors;
-            } else {
-                if (maxDeliveryFloor.isPresent() && maxPickupFloor.isPresent()) {
-                    maxFloorToTravel = Math.max(maxPickupFloor.get(), maxDeliveryFloor.get());
-                } else if (maxDeliveryFloor.isPresent()) {
-                    maxFloorToTravel = maxDeliveryFloor.get();
-                } else if (maxPickupFloor.isPresent()) {
-                    maxFloorToTravel = maxPickupFloor.get();
-                } else {
-                    maxFloorToTravel = request.getFloor();
-                }
-            }
+        if (state == ElevatorState.UP && request.getDirection() == RequestDirection.DOWN && requestFloor > currentFloor) {
+            boolean pessimisticPickup = upPickupFloors.any(currentFloor + 1, FloorCounter.NO_LIMIT);
+            int maxFloorToTravel = pessimisticPickup ? numberOfFloors : maxFloorToTravelAbove(currentFloor, requestFloor);
 
-            long deliveriesUntilMaxFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x > currentFloor && x <= maxFloorToTravel)
-                    .count();
-            long pickupsUntilMaxFloorAndRequestFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() > currentFloor)
-                    .filter(x -> x.getDirection() == RequestDirection.UP ||
-                            (x.getDirection() == RequestDirection.DOWN && x.getFloor() > request.getFloor()))
-                    .count();
+            int deliveriesUntilMaxFloor = deliveries.count(currentFloor + 1, maxFloorToTravel);
+            int pickupsUntilMaxFloorAndRequestFloor = upPickupFloors.count(currentFloor + 1, FloorCounter.NO_LIMIT) +
+                    downPickupFloors.count(Math.max(currentFloor, requestFloor) + 1, FloorCounter.NO_LIMIT);
 
             if (pessimisticPickup) {
                 deliveriesUntilMaxFloor++;
             }
 
-            int result = (int) (deliveriesUntilMaxFloor * estimatedLeavingSteps +
+            int result = deliveriesUntilMaxFloor * estimatedLeavingSteps +
                     pickupsUntilMaxFloorAndRequestFloor * estimatedEnteringSteps +
-                    Math.abs(currentFloor - maxFloorToTravel) + Math.abs(request.getFloor() - maxFloorToTravel));
+                    Math.abs(currentFloor - maxFloorToTravel) + Math.abs(requestFloor - maxFloorToTravel);
             if (!isDoorClosed) {
                 return result + estimatedStepsToMoveIfDoorOpen;
             } else {
@@ -313,48 +477,21 @@ class Elevator {
         }
 
         // (4) elevator down, request up, currentFloor > requestFloor
-        if (state == ElevatorState.DOWN && request.getDirection() == RequestDirection.UP && currentFloor > request.getFloor()) {
-            boolean pessimisticPickup = pickupRequestsToHandle.stream()
-                    .anyMatch(x -> x.getFloor() < currentFloor && x.getDirection() == RequestDirection.DOWN);
-            Optional<Integer> minDeliveryFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x < currentFloor)
-                    .min(Integer::compareTo);
-            Optional<Integer> minPickupFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() < currentFloor && x.getDirection() == RequestDirection.UP)
-                    .map(PickupRequest::getFloor)
-                    .min(Integer::compareTo);
-
-            int minFloorToTravel;
-            if (pessimisticPickup) {
-                minFloorToTravel = 0;
-            } else {
-                if (minDeliveryFloor.isPresent() && minPickupFloor.isPresent()) {
-                    minFloorToTravel = Math.min(minPickupFloor.get(), minDeliveryFloor.get());
-                } else if (minDeliveryFloor.isPresent()) {
-                    minFloorToTravel = minDeliveryFloor.get();
-                } else if (minPickupFloor.isPresent()) {
-                    minFloorToTravel = minPickupFloor.get();
-                } else {
-                    minFloorToTravel = request.getFloor();
-                }
-            }
+        if (state == ElevatorState.DOWN && request.getDirection() == RequestDirection.UP && currentFloor > requestFloor) {
+            boolean pessimisticPickup = downPickupFloors.any(0, currentFloor - 1);
+            int minFloorToTravel = pessimisticPickup ? 0 : minFloorToTravelBelow(currentFloor, requestFloor);
 
-            long deliveriesUntilMinFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x < currentFloor && x >= minFloorToTravel)
-                    .count();
-            long pickupsUntilMinFloorAndRequestFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() < currentFloor)
-                    .filter(x -> x.getDirection() == RequestDirection.DOWN ||
-                            (x.getDirection() == RequestDirection.UP && x.getFloor() < request.getFloor()))
-                    .count();
+            int deliveriesUntilMinFloor = deliveries.count(minFloorToTravel, currentFloor - 1);
+            int pickupsUntilMinFloorAndRequestFloor = downPickupFloors.count(0, currentFloor - 1) +
+                    upPickupFloors.count(0, Math.min(currentFloor, requestFloor) - 1);
 
             if (pessimisticPickup) {
                 deliveriesUntilMinFloor++;
             }
 
-            int result = (int) (deliveriesUntilMinFloor * estimatedLeavingSteps +
+            int result = deliveriesUntilMinFloor * estimatedLeavingSteps +
                     pickupsUntilMinFloorAndRequestFloor * estimatedEnteringSteps +
-                    Math.abs(currentFloor - minFloorToTravel) + Math.abs(request.getFloor() - minFloorToTravel));
+                    Math.abs(currentFloor - minFloorToTravel) + Math.abs(requestFloor - minFloorToTravel);
             if (!isDoorClosed) {
                 return result + estimatedStepsToMoveIfDoorOpen;
             } else {
@@ -363,68 +500,21 @@ class Elevator {
         }
 
         // (5) elevator up, request up, currentFloor > requestFloor
-        if (state == ElevatorState.UP && request.getDirection() == RequestDirection.UP && currentFloor > request.getFloor()) {
-            boolean pessimisticPickupUp = pickupRequestsToHandle.stream()
-                    .anyMatch(x -> x.getFloor() > currentFloor && x.getDirection() == RequestDirection.UP);
-            Optional<Integer> maxDeliveryFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x > currentFloor)
-                    .max(Integer::compareTo);
-            Optional<Integer> maxPickupFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() > currentFloor && x.getDirection() == RequestDirection.DOWN)
-                    .map(PickupRequest::getFloor)
-                    .max(Integer::compareTo);
-
-            int maxFloorToTravel;
-            if (pessimisticPickupUp) {
-                maxFloorToTravel = numberOfFloors;
-            } else {
-                if (maxDeliveryFloor.isPresent() && maxPickupFloor.isPresent()) {
-                    maxFloorToTravel = Math.max(maxPickupFloor.get(), maxDeliveryFloor.get());
-                } else if (maxDeliveryFloor.isPresent()) {
-                    maxFloorToTravel = maxDeliveryFloor.get();
-                } else if (maxPickupFloor.isPresent()) {
-                    maxFloorToTravel = maxPickupFloor.get();
-                } else {
-                    maxFloorToTravel = request.getFloor();
-                }
-            }
-
-            boolean pessimisticPickupDown = pickupRequestsToHandle.stream()
-                    .anyMatch(x -> x.getFloor() <= maxFloorToTravel && x.getDirection() == RequestDirection.DOWN);
-            Optional<Integer> minDeliveryFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x < maxFloorToTravel)
-                    .min(Integer::compareTo);
-            Optional<Integer> minPickupFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() < maxFloorToTravel && x.getDirection() == RequestDirection.UP)
-                    .map(PickupRequest::getFloor)
-                    .min(Integer::compareTo);
-
-            int minFloorToTravel;
-            if (pessimisticPickupDown) {
-                minFloorToTravel = 0;
-            } else {
-                if (minDeliveryFloor.isPresent() && minPickupFloor.isPresent()) {
-                    minFloorToTravel = Math.min(minPickupFloor.get(), minDeliveryFloor.get());
-                } else if (minDeliveryFloor.isPresent()) {
-                    minFloorToTravel = minDeliveryFloor.get();
-                } else if (minPickupFloor.isPresent()) {
-                    minFloorToTravel = minPickupFloor.get();
-                } else {
-                    minFloorToTravel = request.getFloor();
-                }
-            }
-
-            long deliveriesBetweenMinAndMax = deliveryDestinationFloors.stream()
-                    .filter(x -> x >= minFloorToTravel && x <= maxFloorToTravel)
-                    .count();
-            long pickupsBetweenCurrentMaxMinAndRequest = pickupRequestsToHandle.stream()
-                    .filter(x -> (x.getFloor() > currentFloor && x.getDirection() == RequestDirection.UP) ||
-                            (x.getDirection() == RequestDirection.DOWN && (x.getFloor() >= minFloorToTravel && x.getFloor() <= maxFloorToTravel)) ||
-                            (x.getDirection() == RequestDirection.UP && x.getFloor() < request.getFloor()))
-                    .count();
-            int result = (int) (deliveriesBetweenMinAndMax * estimatedLeavingSteps +
+        if (state == ElevatorState.UP && request.getDirection() == RequestDirection.UP && currentFloor > requestFloor) {
+            boolean pessimisticPickupUp = upPickupFloors.any(currentFloor + 1, FloorCounter.NO_LIMIT);
+            int maxFloorToTravel = pessimisticPickupUp ? numberOfFloors : maxFloorToTravelAbove(currentFloor, requestFloor);
+
+            boolean pessimisticPickupDown = downPickupFloors.any(0, maxFloorToTravel);
+            int minFloorToTravel = pessimisticPickupDown ? 0 : minFloorToTravelBelow(maxFloorToTravel, requestFloor);
+
+            int deliveriesBetweenMinAndMax = deliveries.count(minFloorToTravel, maxFloorToTravel);
+            // up pickups above current floor or below request floor (counted once), down pickups between min and max
+            int pickupsBetweenCurrentMaxMinAndRequest = upPickupFloors.count(currentFloor + 1, FloorCounter.NO_LIMIT) +
+                    upPickupFloors.count(0, requestFloor - 1) - upPickupFloors.count(currentFloor + 1, requestFloor - 1) +
+                    downPickupFloors.count(minFloorToTravel, maxFloorToTravel);
+            int result = deliveriesBetweenMinAndMax * estimatedLeavingSteps +
                     pickupsBetweenCurrentMaxMinAndRequest * estimatedEnteringSteps +
-                    Math.abs(currentFloor - maxFloorToTravel) + Math.abs(maxFloorToTravel - minFloorToTravel) + Math.abs(request.getFloor() - minFloorToTravel));
+                    Math.abs(currentFloor - maxFloorToTravel) + Math.abs(maxFloorToTravel - minFloorToTravel) + Math.abs(requestFloor - minFloorToTravel);
 
             if (pessimisticPickupUp) {
                 result += estimatedLeavingSteps;
@@ -441,68 +531,21 @@ class Elevator {
         }
 
         // (6) elevator down, request down, currentFloor < requestFloor
-        if (state == ElevatorState.DOWN && request.getDirection() == RequestDirection.DOWN && currentFloor < request.getFloor()) {
-            boolean pessimisticPickupDown = pickupRequestsToHandle.stream()
-                    .anyMatch(x -> x.getFloor() < currentFloor && x.getDirection() == RequestDirection.DOWN);
-            Optional<Integer> minDeliveryFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x < currentFloor)
-                    .min(Integer::compareTo);
-            Optional<Integer> minPickupFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() < currentFloor && x.getDirection() == RequestDirection.UP)
-                    .map(PickupRequest::getFloor)
-                    .min(Integer::compareTo);
-
-            int minFloorToTravel;
-            if (pessimisticPickupDown) {
-                minFloorToTravel = 0;
-            } else {
-                if (minDeliveryFloor.isPresent() && minPickupFloor.isPresent()) {
-                    minFloorToTravel = Math.min(minPickupFloor.get(), minDeliveryFloor.get());
-                } else if (minDeliveryFloor.isPresent()) {
-                    minFloorToTravel = minDeliveryFloor.get();
-                } else if (minPickupFloor.isPresent()) {
-                    minFloorToTravel = minPickupFloor.get();
-                } else {
-                    minFloorToTravel = request.getFloor();
-                }
-            }
-
-            boolean pessimisticPickupUp = pickupRequestsToHandle.stream()
-                    .anyMatch(x -> x.getFloor() >= minFloorToTravel && x.getDirection() == RequestDirection.UP);
-            Optional<Integer> maxDeliveryFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x > minFloorToTravel)
-                    .max(Integer::compareTo);
-            Optional<Integer> maxPickupFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() > minFloorToTravel && x.getDirection() == RequestDirection.DOWN)
-                    .map(PickupRequest::getFloor)
-                    .max(Integer::compareTo);
-
-            int maxFloorToTravel;
-            if (pessimisticPickupUp) {
-                maxFloorToTravel = numberOfFloors;
-            } else {
-                if (maxDeliveryFloor.isPresent() && maxPickupFloor.isPresent()) {
-                    maxFloorToTravel = Math.max(maxPickupFloor.get(), maxDeliveryFloor.get());
-                } else if (maxDeliveryFloor.isPresent()) {
-                    maxFloorToTravel = maxDeliveryFloor.get();
-                } else if (maxPickupFloor.isPresent()) {
-                    maxFloorToTravel = maxPickupFloor.get();
-                } else {
-                    maxFloorToTravel = request.getFloor();
-                }
-            }
-
-            long deliveriesBetweenMinAndMax = deliveryDestinationFloors.stream()
-                    .filter(x -> x >= minFloorToTravel && x <= maxFloorToTravel)
-                    .count();
-            long pickupsBetweenCurrentMinMaxAndRequest = pickupRequestsToHandle.stream()
-                    .filter(x -> (x.getFloor() < currentFloor && x.getDirection() == RequestDirection.DOWN) ||
-                            (x.getDirection() == RequestDirection.UP && (x.getFloor() >= minFloorToTravel && x.getFloor() <= maxFloorToTravel)) ||
-                            (x.getDirection() == RequestDirection.DOWN && x.getFloor() > request.getFloor()))
-                    .count();
-            int result = (int) (deliveriesBetweenMinAndMax * estimatedLeavingSteps +
+        if (state == ElevatorState.DOWN && request.getDirection() == RequestDirection.DOWN && currentFloor < requestFloor) {
+            boolean pessimisticPickupDown = downPickupFloors.any(0, currentFloor - 1);
+            int minFloorToTravel = pessimisticPickupDown ? 0 : minFloorToTravelBelow(currentFloor, requestFloor);
+
+            boolean pessimisticPickupUp = upPickupFloors.any(minFloorToTravel, FloorCounter.NO_LIMIT);
+            int maxFloorToTravel = pessimisticPickupUp ? numberOfFloors : maxFloorToTravelAbove(minFloorToTravel, requestFloor);
+
+            int deliveriesBetweenMinAndMax = deliveries.count(minFloorToTravel, maxFloorToTravel);
+            // down pickups below current floor or above request floor (counted once), up pickups between min and max
+            int pickupsBetweenCurrentMinMaxAndRequest = downPickupFloors.count(0, currentFloor - 1) +
+                    downPickupFloors.count(requestFloor + 1, FloorCounter.NO_LIMIT) - downPickupFloors.count(requestFloor + 1, currentFloor - 1) +
+                    upPickupFloors.count(minFloorToTravel, maxFloorToTravel);
+            int result = deliveriesBetweenMinAndMax * estimatedLeavingSteps +
                     pickupsBetweenCurrentMinMaxAndRequest * estimatedEnteringSteps +
-                    Math.abs(currentFloor - minFloorToTravel) + Math.abs(maxFloorToTravel - minFloorToTravel) + Math.abs(request.getFloor() - maxFloorToTravel));
+                    Math.abs(currentFloor - minFloorToTravel) + Math.abs(maxFloorToTravel - minFloorToTravel) + Math.abs(requestFloor - maxFloorToTravel);
 
             if (pessimisticPickupDown) {
                 result += estimatedLeavingSteps;
@@ -520,42 +563,18 @@ class Elevator {
 
         // (7) elevator up, request down, currentFloor >= requestFloor
         if (state == ElevatorState.UP && request.getDirection() == RequestDirection.DOWN/* && currentFloor >= request.getFloor()*/) {
-            boolean pessimisticPickup = pickupRequestsToHandle.stream()
-                    .anyMatch(x -> x.getFloor() > currentFloor && x.getDirection() == RequestDirection.UP);
-            Optional<Integer> maxDeliveryFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x > currentFloor)
-                    .max(Integer::compareTo);
-            Optional<Integer> maxPickupFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() > currentFloor && x.getDirection() == RequestDirection.DOWN)
-                    .map(PickupRequest::getFloor)
-                    .max(Integer::compareTo);
-
-            int maxFloorToTravel;
-            if (pessimisticPickup) {
-                maxFloorToTravel = numberOfFloors;
-            } else {
-                if (maxDeliveryFloor.isPresent() && maxPickupFloor.isPresent()) {
-                    maxFloorToTravel = Math.max(maxPickupFloor.get(), maxDeliveryFloor.get());
-                } else if (maxDeliveryFloor.isPresent()) {
-                    maxFloorToTravel = maxDeliveryFloor.get();
-                } else if (maxPickupFloor.isPresent()) {
-                    maxFloorToTravel = maxPickupFloor.get();
-                } else {
-                    maxFloorToTravel = request.getFloor();
-                }
-            }
+            boolean pessimisticPickup = upPickupFloors.any(currentFloor + 1, FloorCounter.NO_LIMIT);
+            int maxFloorToTravel = pessimisticPickup ? numberOfFloors : maxFloorToTravelAbove(currentFloor, requestFloor);
 
-            long deliveriesBetweenCurrentMaxAndRequestFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x > request.getFloor() && x <= maxFloorToTravel)
-                    .count();
-            long pickupsUntilMaxFloorAndRequestFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() > currentFloor ||
-                            (x.getFloor() > request.getFloor() && x.getDirection() == RequestDirection.DOWN))
-                    .count();
+            int deliveriesBetweenCurrentMaxAndRequestFloor = deliveries.count(requestFloor + 1, maxFloorToTravel);
+            // all pickups above current floor, down pickups above request floor (counted once)
+            int pickupsUntilMaxFloorAndRequestFloor = countPickups(currentFloor + 1, FloorCounter.NO_LIMIT) +
+                    downPickupFloors.count(requestFloor + 1, FloorCounter.NO_LIMIT) -
+                    downPickupFloors.count(Math.max(currentFloor, requestFloor) + 1, FloorCounter.NO_LIMIT);
 
-            int result = (int) (deliveriesBetweenCurrentMaxAndRequestFloor * estimatedLeavingSteps +
+            int result = deliveriesBetweenCurrentMaxAndRequestFloor * estimatedLeavingSteps +
                     pickupsUntilMaxFloorAndRequestFloor * estimatedEnteringSteps +
-                    Math.abs(currentFloor - maxFloorToTravel) + Math.abs(maxFloorToTravel - request.getFloor()));
+                    Math.abs(currentFloor - maxFloorToTravel) + Math.abs(maxFloorToTravel - requestFloor);
 
             if (pessimisticPickup) {
                 result += estimatedLeavingSteps;
@@ -570,42 +589,18 @@ class Elevator {
 
         // (8) elevator down, request up, currentFloor <= requestFloor
         if (state == ElevatorState.DOWN && request.getDirection() == RequestDirection.UP/* && currentFloor <= request.getFloor()*/) {
-            boolean pessimisticPickup = pickupRequestsToHandle.stream()
-                    .anyMatch(x -> x.getFloor() < currentFloor && x.getDirection() == RequestDirection.DOWN);
-            Optional<Integer> minDeliveryFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x < currentFloor)
-                    .min(Integer::compareTo);
-            Optional<Integer> minPickupFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() < currentFloor && x.getDirection() == RequestDirection.UP)
-                    .map(PickupRequest::getFloor)
-                    .min(Integer::compareTo);
-
-            int minFloorToTravel;
-            if (pessimisticPickup) {
-                minFloorToTravel = 0;
-            } else {
-                if (minDeliveryFloor.isPresent() && minPickupFloor.isPresent()) {
-                    minFloorToTravel = Math.min(minPickupFloor.get(), minDeliveryFloor.get());
-                } else if (minDeliveryFloor.isPresent()) {
-                    minFloorToTravel = minDeliveryFloor.get();
-                } else if (minPickupFloor.isPresent()) {
-                    minFloorToTravel = minPickupFloor.get();
-                } else {
-                    minFloorToTravel = request.getFloor();
-                }
-            }
+            boolean pessimisticPickup = downPickupFloors.any(0, currentFloor - 1);
+            int minFloorToTravel = pessimisticPickup ? 0 : minFloorToTravelBelow(currentFloor, requestFloor);
 
-            long deliveriesBetweenCurrentMinAndRequestFloor = deliveryDestinationFloors.stream()
-                    .filter(x -> x < request.getFloor() && x >= minFloorToTravel)
-                    .count();
-            long pickupsUntilMinFloorAndRequestFloor = pickupRequestsToHandle.stream()
-                    .filter(x -> x.getFloor() < currentFloor ||
-                            (x.getFloor() < request.getFloor() && x.getDirection() == RequestDirection.UP))
-                    .count();
+            int deliveriesBetweenCurrentMinAndRequestFloor = deliveries.count(minFloorToTravel, requestFloor - 1);
+            // all pickups below current floor, up pickups below request floor (counted once)
+            int pickupsUntilMinFloorAndRequestFloor = countPickups(0, currentFloor - 1) +
+                    upPickupFloors.count(0, requestFloor - 1) -
+                    upPickupFloors.count(0, Math.min(currentFloor, requestFloor) - 1);
 
-            int result = (int) (deliveriesBetweenCurrentMinAndRequestFloor * estimatedLeavingSteps +
+            int result = deliveriesBetweenCurrentMinAndRequestFloor * estimatedLeavingSteps +
                     pickupsUntilMinFloorAndRequestFloor * estimatedEnteringSteps +
-                    Math.abs(currentFloor - minFloorToTravel) + Math.abs(minFloorToTravel - request.getFloor()));
+                    Math.abs(currentFloor - minFloorToTravel) + Math.abs(minFloorToTravel - requestFloor);
 
             if (pessimisticPickup) {
                 result += estimatedLeavingSteps;
@@ -618,13 +613,39 @@ class Elevator {
             }
         }
 
-        if (currentFloor == request.getFloor() &&
+        if (currentFloor == requestFloor &&
                 ((state == ElevatorState.UP && request.getDirection() == RequestDirection.UP) ||
                 (state == ElevatorState.DOWN && request.getDirection() == RequestDirection.DOWN))) {
             return 0;
         }
 
-        logger.error("Failed pickup time estimation.");
+        logger.error(LogMarkers.HOT_PATH, "Elevator {} failed pickup time estimation.", id);
         return Integer.MAX_VALUE;
     }
+
+    // the highest delivery or down pickup above given floor, requestFloor if there is none
+    private int maxFloorToTravelAbove(int floor, int requestFloor) {
+        int maxFloor = Math.max(deliveryDestinationFloors.max(floor + 1, FloorCounter.NO_LIMIT),
+                downPickupFloors.max(floor + 1, FloorCounter.NO_LIMIT));
+        return maxFloor == -1 ? requestFloor : maxFloor;
+    }
+
+    // the lowest delivery or up pickup below given floor, requestFloor if there is none
+    private int minFloorToTravelBelow(int floor, int requestFloor) {
+        int minDeliveryFloor = deliveryDestinationFloors.min(0, floor - 1);
+        int minPickupFloor = upPickupFloors.min(0, floor - 1);
+        if (minDeliveryFloor == -1 && minPickupFloor == -1) {
+            return requestFloor;
+        } else if (minDeliveryFloor == -1 || minPickupFloor == -1) {
+            return Math.max(minDeliveryFloor, minPickupFloor);
+        }
+        return Math.min(minDeliveryFloor, minPickupFloor);
+    }
+
+    @Override
+    public String toString() {
+        return "Elevator(id=" + id + ", stepsSinceDoorOpened=" + getStepsSinceDoorOpened() + ", currentFloor=" + getCurrentFloor()
+                + ", isDoorClosed=" + isDoorClosed() + ", state=" + getState() + ", deliveryDestinationFloors=" + deliveryDestinationFloors
+                + ", pickupRequestsToHandle=" + pickupRequestsToHandle + ")";
+    }
 }
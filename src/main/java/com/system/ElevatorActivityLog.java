@@ -0,0 +1,224 @@
+package com.system;
+
+import com.system.activities.ActivityCodec;
+import com.system.activities.ActivityType;
+import com.system.activities.ElevatorActivity;
+import java.util.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// append-only log of elevator activities in the order they happened
+// steps are indexed by the position of their first activity, so appends are amortized O(1)
+// and activities of a step are found with a binary search
+// activities are kept packed (two longs each, see ActivityCodec) and decoded only when they are read
+// the oldest activities are evicted according to the retention (and passed to the spill listener, if there is one),
+// evicted space is reclaimed by compacting the arrays instead of growing them
+// step window is moved by the clock (evictUpTo), so it is moved also for an elevator that logs nothing
+class ElevatorActivityLog {
+
+    private final int elevatorId;
+    private long[] packedActivities;
+    private int firstActivity;
+    private int numberOfActivities;
+    private int[] steps;
+    private int[] firstActivityIndexes;
+    private int firstStep;
+    private int numberOfSteps;
+    private ActivityRetention retention;
+    private ActivityLogListener spillListener;
+    private final Map<Integer, List<ElevatorActivity>> mapView;
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    ElevatorActivityLog(int elevatorId) {
+        this.elevatorId = elevatorId;
+        this.packedActivities = new long[32];
+        this.firstActivity = 0;
+        this.numberOfActivities = 0;
+        this.steps = new int[16];
+        this.firstActivityIndexes = new int[16];
+        this.firstStep = 0;
+        this.numberOfSteps = 0;
+        this.retention = ActivityRetention.unlimited();
+        this.spillListener = null;
+        this.mapView = new StepMapView();
+    }
+
+    // spill listener (null - none) receives every evicted activity
+    // with step window retention, nothing is evicted until the next evictUpTo
+    void setRetention(ActivityRetention retention, ActivityLogListener spillListener) {
+        this.retention = retention;
+        this.spillListener = spillListener;
+        evictOldActivities();
+    }
+
+    // evicts activities of steps outside the step window ending at currentStep (other retentions do not depend on the clock)
+    void evictUpTo(int currentStep) {
+        if (retention.getKind() != ActivityRetention.Kind.STEP_WINDOW) {
+            return;
+        }
+        while (numberOfSteps > firstStep && steps[firstStep] <= currentStep - retention.getLimit()) {
+            evictOldestStep();
+        }
+    }
+
+    void append(int step, ActivityType type, ElevatorState state, int firstValue, int secondValue) {
+        appendPacked(ActivityCodec.header(step, type, state), ActivityCodec.values(firstValue, secondValue));
+    }
+
+    private void appendPacked(long header, long values) {
+        int step = ActivityCodec.step(header);
+        if (numberOfSteps == firstStep || steps[numberOfSteps - 1] < step) {
+            if (numberOfSteps == steps.length) {
+                compactOrGrowSteps();
+            }
+            steps[numberOfSteps] = step;
+            firstActivityIndexes[numberOfSteps] = numberOfActivities;
+            numberOfSteps++;
+        } else if (steps[numberOfSteps - 1] > step) {
+            logger.error(LogMarkers.HOT_PATH, "Activity of step {} logged after activities of step {} - skipping it.", step, steps[numberOfSteps - 1]);
+            return;
+        }
+        if (2 * numberOfActivities == packedActivities.length) {
+            compactOrGrowActivities();
+        }
+        packedActivities[2 * numberOfActivities] = header;
+        packedActivities[2 * numberOfActivities + 1] = values;
+        numberOfActivities++;
+        evictOldActivities();
+    }
+
+    // number of retained activities
+    int size() {
+        return numberOfActivities - firstActivity;
+    }
+
+    // read-only view: step -> activities of this step, iterated in step order
+    Map<Integer, List<ElevatorActivity>> asMap() {
+        return mapView;
+    }
+
+    private void evictOldActivities() {
+        switch (retention.getKind()) {
+            case LAST_ACTIVITIES -> {
+                while (size() > retention.getLimit()) {
+                    evictOldestActivity();
+                }
+            }
+            case LAST_STEPS -> {
+                while (numberOfSteps - firstStep > retention.getLimit()) {
+                    evictOldestStep();
+                }
+            }
+        }
+    }
+
+    private void evictOldestStep() {
+        int step = steps[firstStep];
+        while (numberOfSteps > firstStep && steps[firstStep] == step) {
+            evictOldestActivity();
+        }
+    }
+
+    private void evictOldestActivity() {
+        if (spillListener != null) {
+            spillListener.onActivity(elevatorId, packedActivities[2 * firstActivity], packedActivities[2 * firstActivity + 1]);
+        }
+        firstActivity++;
+        int endOfFirstStep = firstStep + 1 < numberOfSteps ? firstActivityIndexes[firstStep + 1] : numberOfActivities;
+        if (firstActivity == endOfFirstStep) {
+            firstStep++;
+        } else {
+            firstActivityIndexes[firstStep] = firstActivity;
+        }
+    }
+
+    // arrays grow only when more than half of them is retained
+    private void compactOrGrowActivities() {
+        int retained = numberOfActivities - firstActivity;
+        long[] target = 2 * retained <= packedActivities.length / 2 ? packedActivities : new long[packedActivities.length * 2];
+        System.arraycopy(packedActivities, 2 * firstActivity, target, 0, 2 * retained);
+        packedActivities = target;
+        for (int i = firstStep; i < numberOfSteps; i++) {
+            firstActivityIndexes[i] -= firstActivity;
+        }
+        numberOfActivities = retained;
+        firstActivity = 0;
+    }
+
+    private void compactOrGrowSteps() {
+        int retained = numberOfSteps - firstStep;
+        if (retained > steps.length / 2) {
+            steps = Arrays.copyOf(steps, steps.length * 2);
+            firstActivityIndexes = Arrays.copyOf(firstActivityIndexes, firstActivityIndexes.length * 2);
+        }
+        System.arraycopy(steps, firstStep, steps, 0, retained);
+        System.arraycopy(firstActivityIndexes, firstStep, firstActivityIndexes, 0, retained);
+        numberOfSteps = retained;
+        firstStep = 0;
+    }
+
+    // activities are decoded when the step is read, so the list is not affected by later appends or evictions
+    private List<ElevatorActivity> activitiesOfStep(int stepIndex) {
+        int to = stepIndex + 1 < numberOfSteps ? firstActivityIndexes[stepIndex + 1] : numberOfActivities;
+        List<ElevatorActivity> res = new ArrayList<>(to - firstActivityIndexes[stepIndex]);
+        for (int i = firstActivityIndexes[stepIndex]; i < to; i++) {
+            res.add(ActivityCodec.decode(packedActivities[2 * i], packedActivities[2 * i + 1]));
+        }
+        return Collections.unmodifiableList(res);
+    }
+
+    private class StepMapView extends AbstractMap<Integer, List<ElevatorActivity>> {
+
+        @Override
+        public List<ElevatorActivity> get(Object key) {
+            if (!(key instanceof Integer step)) {
+                return null;
+            }
+            int stepIndex = Arrays.binarySearch(steps, firstStep, numberOfSteps, step);
+            return stepIndex >= 0 ? activitiesOfStep(stepIndex) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer step && Arrays.binarySearch(steps, firstStep, numberOfSteps, step) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return numberOfSteps - firstStep;
+        }
+
+        @Override
+        public Set<Entry<Integer, List<ElevatorActivity>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return numberOfSteps - firstStep;
+                }
+
+                @Override
+                public Iterator<Entry<Integer, List<ElevatorActivity>>> iterator() {
+                    return new Iterator<>() {
+                        private int stepIndex = firstStep;
+
+                        @Override
+                        public boolean hasNext() {
+                            return stepIndex < numberOfSteps;
+                        }
+
+                        @Override
+                        public Entry<Integer, List<ElevatorActivity>> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<Integer, List<ElevatorActivity>> entry = Map.entry(steps[stepIndex], activitiesOfStep(stepIndex));
+                            stepIndex++;
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
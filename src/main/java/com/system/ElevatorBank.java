@@ -0,0 +1,288 @@
+package com.system;
+
+import com.system.activities.ActivityType;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// state of many elevators in parallel primitive arrays (structure of arrays) - elevator i is the i-th entry of every array,
+// floors with deliveries and floors with pickup requests are bitmaps of wordsPerElevator longs per elevator
+// stepping is a loop over these arrays, elevator objects (views of their entries) are touched only to log activities
+// and to find pickup requests at a floor where elevator stops
+// Elevator remains the API of a single elevator - all its state except its pickup requests and activity log lives here
+class ElevatorBank {
+
+    static final int DELIVERIES = 0;
+    static final int PICKUPS = 1;
+    private static final ElevatorState[] STATES = ElevatorState.values();
+
+    private final int numberOfFloors;
+    private final SimulationClock clock;
+    private final Elevator[] elevators;
+    final int[] currentFloors;
+    final byte[] states;
+    final boolean[] doorClosed;
+    final int[] stepsSinceDoorOpened;
+    final boolean[] dispatchStateChanged;
+    // bitmaps[DELIVERIES], bitmaps[PICKUPS] (floors with a pickup request in any direction)
+    final long[][] bitmaps;
+    int wordsPerElevator;
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    ElevatorBank(int numberOfElevators, int numberOfFloors, SimulationClock clock) {
+        this.numberOfFloors = numberOfFloors;
+        this.clock = clock;
+        this.elevators = new Elevator[numberOfElevators];
+        this.currentFloors = new int[numberOfElevators];
+        this.states = new byte[numberOfElevators];
+        this.doorClosed = new boolean[numberOfElevators];
+        this.stepsSinceDoorOpened = new int[numberOfElevators];
+        this.dispatchStateChanged = new boolean[numberOfElevators];
+        this.wordsPerElevator = (numberOfFloors >> 6) + 1;
+        this.bitmaps = new long[][] {new long[numberOfElevators * wordsPerElevator], new long[numberOfElevators * wordsPerElevator]};
+        Arrays.fill(states, (byte) ElevatorState.IDLE.ordinal());
+        Arrays.fill(doorClosed, true);
+    }
+
+    int size() {
+        return elevators.length;
+    }
+
+    SimulationClock getClock() {
+        return clock;
+    }
+
+    Elevator getElevator(int index) {
+        return elevators[index];
+    }
+
+    // called by the constructor of the view
+    void attach(int index, Elevator elevator) {
+        elevators[index] = elevator;
+    }
+
+    ElevatorState getState(int index) {
+        return STATES[states[index]];
+    }
+
+    void setState(int index, ElevatorState state) {
+        states[index] = (byte) state.ordinal();
+    }
+
+    // performs steps of all elevators, collects the ones that opened door
+    void stepAll(List<Elevator> elevatorsThatOpenedDoor) {
+        for (int i = 0; i < elevators.length; i++) {
+            boolean wasDoorClosed = doorClosed[i];
+            step(i);
+            if (wasDoorClosed && !doorClosed[i]) {
+                elevatorsThatOpenedDoor.add(elevators[i]);
+            }
+        }
+    }
+
+    // updates elevator's state, if door is closed performs movement, handles floor and updates state once again
+    void step(int i) {
+        byte stateBeforeStep = states[i];
+        states[i] = nextState(i);
+        if (doorClosed[i]) {
+            moveElevator(i);
+            handleFloor(i);
+        } else {
+            stepsSinceDoorOpened[i]++;
+        }
+        states[i] = nextState(i);
+        if (states[i] != stateBeforeStep) {
+            dispatchStateChanged[i] = true;
+        }
+    }
+
+    // state based on actions that elevator still needs to perform
+    byte nextState(int i) {
+        long[] deliveries = bitmaps[DELIVERIES];
+        long[] pickups = bitmaps[PICKUPS];
+        int base = i * wordsPerElevator;
+        if (isEmpty(deliveries, base, wordsPerElevator) && isEmpty(pickups, base, wordsPerElevator)) {
+            return (byte) ElevatorState.IDLE.ordinal();
+        }
+
+        int floor = currentFloors[i];
+        boolean higherDelivery = nextSetBit(deliveries, base, wordsPerElevator, floor + 1) != -1;
+        boolean higherPickup = nextSetBit(pickups, base, wordsPerElevator, floor + 1) != -1;
+        boolean lowerDelivery = previousSetBit(deliveries, base, wordsPerElevator, floor - 1) != -1;
+        boolean lowerPickup = previousSetBit(pickups, base, wordsPerElevator, floor - 1) != -1;
+
+        switch (STATES[states[i]]) {
+            case UP -> {
+                if (higherDelivery || higherPickup) {
+                    return (byte) ElevatorState.UP.ordinal();
+                } else if (lowerDelivery || lowerPickup) {
+                    return (byte) ElevatorState.DOWN.ordinal();
+                }
+            }
+            case DOWN -> {
+                if (lowerDelivery || lowerPickup) {
+                    return (byte) ElevatorState.DOWN.ordinal();
+                } else if (higherDelivery || higherPickup) {
+                    return (byte) ElevatorState.UP.ordinal();
+                }
+            }
+            case IDLE -> {
+                if (higherDelivery) {
+                    return (byte) ElevatorState.UP.ordinal();
+                } else if (lowerDelivery) {
+                    return (byte) ElevatorState.DOWN.ordinal();
+                } else if (higherPickup) {
+                    return (byte) ElevatorState.UP.ordinal();
+                } else if (lowerPickup) {
+                    return (byte) ElevatorState.DOWN.ordinal();
+                }
+            }
+        }
+        return states[i];
+    }
+
+    private void moveElevator(int i) {
+        switch (STATES[states[i]]) {
+            case UP -> {
+                if (currentFloors[i] == numberOfFloors) {
+                    logger.error(LogMarkers.HOT_PATH, "Elevator {} cannot go up anymore.", elevators[i].getId());
+                }
+                currentFloors[i]++;
+                elevators[i].logElevatorActivity(clock.getCurrentStep(), ActivityType.MOVE, currentFloors[i] - 1, currentFloors[i]);
+            }
+            case DOWN -> {
+                if (currentFloors[i] == 0) {
+                    logger.error(LogMarkers.HOT_PATH, "Elevator {} cannot go below ground level.", elevators[i].getId());
+                }
+                currentFloors[i]--;
+                elevators[i].logElevatorActivity(clock.getCurrentStep(), ActivityType.MOVE, currentFloors[i] + 1, currentFloors[i]);
+            }
+        }
+    }
+
+    // without a pickup request at the current floor, door is opened only for a delivery
+    private void handleFloor(int i) {
+        if (states[i] == ElevatorState.IDLE.ordinal()) {
+            return;
+        }
+        int base = i * wordsPerElevator;
+        if (testBit(bitmaps[PICKUPS], base, wordsPerElevator, currentFloors[i])) {
+            elevators[i].handleFloorWithPickups();
+        } else if (testBit(bitmaps[DELIVERIES], base, wordsPerElevator, currentFloors[i])) {
+            openDoor(i);
+        }
+    }
+
+    void openDoor(int i) {
+        if (!doorClosed[i]) {
+            logger.warn(LogMarkers.HOT_PATH, "Elevator {} is trying to open the door that were already opened.", elevators[i].getId());
+        }
+        doorClosed[i] = false;
+        elevators[i].logElevatorActivity(clock.getCurrentStep(), ActivityType.DOOR_OPENED, currentFloors[i], 0);
+        DoorOpenedEvent event = new DoorOpenedEvent();
+        if (event.shouldCommit()) {
+            event.elevator = elevators[i].getId();
+            event.floor = currentFloors[i];
+            event.step = clock.getCurrentStep();
+            event.state = STATES[states[i]].name();
+            event.commit();
+        }
+    }
+
+    // floors above the ones that fit in bitmaps - all bitmaps are widened
+    void ensureFloor(int floor) {
+        if (floor < wordsPerElevator << 6) {
+            return;
+        }
+        int words = Math.max((floor >> 6) + 1, wordsPerElevator * 2);
+        for (int k = 0; k < bitmaps.length; k++) {
+            long[] widened = new long[elevators.length * words];
+            for (int i = 0; i < elevators.length; i++) {
+                System.arraycopy(bitmaps[k], i * wordsPerElevator, widened, i * words, wordsPerElevator);
+            }
+            bitmaps[k] = widened;
+        }
+        wordsPerElevator = words;
+    }
+
+    // operations on the bitmap of words longs starting at base, floors outside of it are never set
+
+    static boolean testBit(long[] bits, int base, int words, int floor) {
+        return floor >= 0 && floor < words << 6 && (bits[base + (floor >> 6)] & (1L << floor)) != 0;
+    }
+
+    static boolean isEmpty(long[] bits, int base, int words) {
+        for (int w = 0; w < words; w++) {
+            if (bits[base + w] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the lowest set floor >= fromFloor, -1 if none
+    static int nextSetBit(long[] bits, int base, int words, int fromFloor) {
+        int from = Math.max(fromFloor, 0);
+        int w = from >> 6;
+        if (w >= words) {
+            return -1;
+        }
+        long word = bits[base + w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == words) {
+                return -1;
+            }
+            word = bits[base + w];
+        }
+    }
+
+    // the highest set floor <= fromFloor, -1 if none
+    static int previousSetBit(long[] bits, int base, int words, int fromFloor) {
+        if (fromFloor < 0) {
+            return -1;
+        }
+        int w = fromFloor >> 6;
+        long word;
+        if (w >= words) {
+            w = words - 1;
+            word = bits[base + w];
+        } else {
+            word = bits[base + w] & (-1L >>> (63 - (fromFloor & 63)));
+        }
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (--w < 0) {
+                return -1;
+            }
+            word = bits[base + w];
+        }
+    }
+
+    // number of set floors in [fromFloor, toFloor]
+    static int countBits(long[] bits, int base, int words, int fromFloor, int toFloor) {
+        int from = Math.max(fromFloor, 0);
+        int to = (int) Math.min(toFloor, ((long) words << 6) - 1);
+        if (from > to) {
+            return 0;
+        }
+        int fromWord = from >> 6;
+        int toWord = to >> 6;
+        long fromMask = -1L << from;
+        long toMask = -1L >>> (63 - (to & 63));
+        if (fromWord == toWord) {
+            return Long.bitCount(bits[base + fromWord] & fromMask & toMask);
+        }
+        int res = Long.bitCount(bits[base + fromWord] & fromMask);
+        for (int w = fromWord + 1; w < toWord; w++) {
+            res += Long.bitCount(bits[base + w]);
+        }
+        return res + Long.bitCount(bits[base + toWord] & toMask);
+    }
+}
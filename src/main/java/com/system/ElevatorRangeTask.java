@@ -0,0 +1,33 @@
+package com.system;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+// performs given action for every index of a range of elevators, the range is split between fork-join workers
+// (the action has to touch only the elevator of its index - invoking the task is a barrier of the phase)
+class ElevatorRangeTask extends RecursiveAction {
+
+    private static final int MIN_ELEVATORS_PER_TASK = 64;
+
+    private final IntConsumer action;
+    private final int fromIndex;
+    private final int toIndex;
+
+    ElevatorRangeTask(IntConsumer action, int fromIndex, int toIndex) {
+        this.action = action;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+    }
+
+    @Override
+    protected void compute() {
+        if (toIndex - fromIndex <= MIN_ELEVATORS_PER_TASK) {
+            for (int i = fromIndex; i < toIndex; i++) {
+                action.accept(i);
+            }
+            return;
+        }
+        int middleIndex = fromIndex + (toIndex - fromIndex) / 2;
+        invokeAll(new ElevatorRangeTask(action, fromIndex, middleIndex), new ElevatorRangeTask(action, middleIndex, toIndex));
+    }
+}
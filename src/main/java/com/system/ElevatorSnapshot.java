@@ -0,0 +1,16 @@
+package com.system;
+
+import lombok.Value;
+
+// state of a single elevator at the end of a step
+@Value
+public class ElevatorSnapshot {
+    int id;
+    int currentFloor;
+    boolean isDoorClosed;
+    int stepsSinceDoorOpened;
+    ElevatorState state;
+    boolean broken;
+    int numberOfDeliveries;
+    int numberOfPickupRequests;
+}
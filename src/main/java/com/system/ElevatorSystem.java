@@ -1,20 +1,51 @@
 package com.system;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+// steps (and configuration) have to be performed by a single thread, pickup() can be called from any thread
 public class ElevatorSystem {
 
-    private static int currentStep = 0;
+    private final SimulationClock clock;
     private final int numberOfElevators;
     private final int numberOfFloors;
     private final int criticalStepsSinceElevatorDoorOpened;
     private final int realLeavingSteps;
+    private final ElevatorBank bank;
     private final Elevator[] elevators;
     private final List<PickupRequest> requests;
-    private final List<ElevatorDoorCloser> doorClosers;
+    private final Queue<PickupRequest> incomingRequests;
+    private final StepScheduler<Elevator> doorClosingSchedule;
+    private final StepScheduler<Elevator> brokenDoorChecks;
+    private final List<Elevator> elevatorsThatOpenedDoor;
+    private final Map<PickupRequest, Elevator> assignments;
+    private final boolean[] elevatorsBrokenAtLastDispatch;
+    private final NavigableMap<Integer, List<PickupRequest>> scheduledPickups;
+    private final List<ActivityPublisher> activityPublishers;
+    private volatile ElevatorSystemSnapshot snapshot;
+    private final StepProfiler profiler;
+    private final PassengerStatistics passengerStatistics;
+    private DispatchMode dispatchMode;
+    private int fullReassignmentInterval;
+    private AssignmentEngine assignmentEngine;
+    private Duration assignmentTimeBudget;
+    private ForkJoinPool parallelDispatchPool;
+    private int parallelDispatchThreshold;
+    private ForkJoinPool parallelStepPool;
+    private int parallelStepThreshold;
+    // results of elevators' parts of parallel phases, merged in the order of elevators
+    private final boolean[] elevatorsOpeningDoor;
+    private final boolean[] elevatorsDelivering;
+    private final IntConsumer stepElevator;
+    private final IntConsumer addDeliveriesOfElevatorThatOpenedDoor;
+    private final IntConsumer removeSuccessfulDelivery;
 
     protected static final Logger logger = LogManager.getLogger();
 
@@ -24,65 +55,244 @@ public class ElevatorSystem {
         this.numberOfFloors = numberOfFloors;
         this.criticalStepsSinceElevatorDoorOpened = criticalStepsSinceElevatorDoorOpened;
         this.realLeavingSteps = realLeavingSteps;
+        this.clock = new SimulationClock();
+        this.bank = new ElevatorBank(numberOfElevators, numberOfFloors, clock);
         this.elevators = new Elevator[numberOfElevators];
         this.requests = new LinkedList<>();
-        this.doorClosers = new LinkedList<>();
+        this.incomingRequests = new ConcurrentLinkedQueue<>();
+        this.doorClosingSchedule = new StepScheduler<>();
+        this.brokenDoorChecks = new StepScheduler<>();
+        this.elevatorsThatOpenedDoor = new ArrayList<>();
+        this.assignments = new IdentityHashMap<>();
+        this.elevatorsBrokenAtLastDispatch = new boolean[numberOfElevators];
+        this.scheduledPickups = new TreeMap<>();
+        this.activityPublishers = new ArrayList<>();
+        this.profiler = new StepProfiler();
+        this.passengerStatistics = new PassengerStatistics(numberOfElevators, numberOfFloors);
+        this.dispatchMode = DispatchMode.FULL;
+        this.fullReassignmentInterval = 0;
+        this.assignmentEngine = AssignmentEngine.GREEDY;
+        this.assignmentTimeBudget = Duration.ofMillis(10);
+        this.parallelDispatchPool = null;
+        this.parallelDispatchThreshold = Integer.MAX_VALUE;
+        this.parallelStepPool = null;
+        this.parallelStepThreshold = Integer.MAX_VALUE;
+        this.elevatorsOpeningDoor = new boolean[numberOfElevators];
+        this.elevatorsDelivering = new boolean[numberOfElevators];
+        this.stepElevator = this::stepElevatorInParallel;
+        this.addDeliveriesOfElevatorThatOpenedDoor = x -> elevatorsThatOpenedDoor.get(x).addDeliveriesOfDonePickups();
+        this.removeSuccessfulDelivery = this::removeSuccessfulDelivery;
 
         for (int i = 0; i < numberOfElevators; i++) {
-            elevators[i] = new Elevator(i, elevatorStartingFloors[i], estimatedEnteringSteps, estimatedLeavingSteps, numberOfFloors);
+            elevators[i] = new Elevator(bank, i, i, elevatorStartingFloors[i], estimatedEnteringSteps, estimatedLeavingSteps, numberOfFloors);
         }
+        publishSnapshot();
     }
 
-    private static void incrementCurrentStep() {
-        currentStep++;
+    public int getCurrentStep() {
+        return clock.getCurrentStep();
     }
 
-    public static void setCurrentStepToZeroForTesting() {
-        currentStep = 0;
+    public void setDispatchMode(DispatchMode dispatchMode) {
+        this.dispatchMode = dispatchMode;
     }
 
-    public static int getCurrentStep() {
-        return currentStep;
+    // in INCREMENTAL mode, every given number of steps all pickup requests are reassigned from scratch (0 - never)
+    public void setFullReassignmentInterval(int fullReassignmentInterval) {
+        this.fullReassignmentInterval = fullReassignmentInterval;
+    }
+
+    public void setAssignmentEngine(AssignmentEngine assignmentEngine) {
+        this.assignmentEngine = assignmentEngine;
+    }
+
+    // time MIN_COST engine can spend on a single step, after that the assignment is finished by GREEDY engine
+    public void setAssignmentTimeBudget(Duration assignmentTimeBudget) {
+        this.assignmentTimeBudget = assignmentTimeBudget;
+    }
+
+    // estimated steps matrices with at least threshold cells are filled on given pool (null - always sequential)
+    public void setParallelDispatch(ForkJoinPool pool, int threshold) {
+        this.parallelDispatchPool = pool;
+        this.parallelDispatchThreshold = threshold;
+    }
+
+    // phases of a step in which every elevator does its own work (elevators' steps, updating and removing deliveries)
+    // are performed on given pool when at least threshold elevators take part in them (null - always sequential)
+    // side effects of elevators (activities passed to listeners, door events, passengers' statistics) are merged
+    // in the order of elevators, so the results are the same as in sequential steps
+    public void setParallelSteps(ForkJoinPool pool, int threshold) {
+        this.parallelStepPool = pool;
+        this.parallelStepThreshold = threshold;
+    }
+
+    private boolean isParallelPhase(int numberOfElevatorsInPhase) {
+        return parallelStepPool != null && numberOfElevatorsInPhase >= parallelStepThreshold;
+    }
+
+    // per-phase step latencies and dispatch metrics (disabled until profiler.setEnabled(true), can be registered in JMX)
+    public StepProfiler getProfiler() {
+        return profiler;
+    }
+
+    // wait, ride and journey times of passengers (in steps)
+    public PassengerStatistics getPassengerStatistics() {
+        return passengerStatistics;
+    }
+
+    // FULL mode (or full reassignment step) - clears all the requests that have not already been picked and assigns them again
+    // INCREMENTAL mode - releases requests of elevators that changed since the last step, assigns released and new requests
+    // (a repaired elevator changes the whole fleet, so it always triggers full reassignment)
+    // package-private for benchmarks - in FULL mode it can be repeated without changing the assignment
+    void dispatchPickupRequests() {
+        boolean elevatorRepaired = updateBrokenElevatorsAndCheckIfAnyRepaired();
+        if (dispatchMode == DispatchMode.INCREMENTAL && !elevatorRepaired && !isFullReassignmentStep()) {
+            releasePickupRequestsOfChangedElevators();
+            if (assignments.size() < requests.size()) {
+                assignPickupRequests(requests.stream().filter(x -> !assignments.containsKey(x)).toList());
+            }
+        } else {
+            clearElevatorPickupRequests();
+            assignPickupRequests(new ArrayList<>(requests));
+        }
+        Arrays.fill(bank.dispatchStateChanged, false);
+    }
+
+    private boolean updateBrokenElevatorsAndCheckIfAnyRepaired() {
+        boolean elevatorRepaired = false;
+        for (int i = 0; i < elevators.length; i++) {
+            boolean broken = elevators[i].isBroken(criticalStepsSinceElevatorDoorOpened);
+            if (elevatorsBrokenAtLastDispatch[i] && !broken) {
+                elevatorRepaired = true;
+            }
+            elevatorsBrokenAtLastDispatch[i] = broken;
+        }
+        return elevatorRepaired;
+    }
+
+    private boolean isFullReassignmentStep() {
+        return fullReassignmentInterval > 0 && clock.getCurrentStep() % fullReassignmentInterval == 0;
+    }
+
+    private void releasePickupRequestsOfChangedElevators() {
+        Iterator<Map.Entry<PickupRequest, Elevator>> iterator = assignments.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<PickupRequest, Elevator> assignment = iterator.next();
+            if (assignment.getValue().isDispatchStateChanged()) {
+                assignment.getValue().removePickupRequest(assignment.getKey());
+                iterator.remove();
+            }
+        }
     }
 
     // assigns pickup requests to elevators in an optimal way
-    // first, it clears all the request that have not already been picked
-    // then, for each pickup request it collects an estimated time of arrival for every elevator
-    // then, it searches for a minimum time in matrix, assigns the elevator to this request, updates all the estimated arrival times for this elevator
-    // repeat above steps until all pickup requests are assigned
-    private void assignPickupRequests() {
-        int[][] estimatedStepsMatrix = new int[requests.size()][numberOfElevators];
-        for (int i = 0; i < estimatedStepsMatrix.length; i++) {
-            for (int j = 0; j < estimatedStepsMatrix[0].length; j++) {
-                if (elevators[j].isBroken(criticalStepsSinceElevatorDoorOpened)) {
-                    estimatedStepsMatrix[i][j] = Integer.MAX_VALUE;
-                } else {
-                    estimatedStepsMatrix[i][j] = elevators[j].estimateNumberOfStepsUntilPickup(requests.get(i));
+    // first, for each pickup request it collects an estimated time of arrival for every elevator
+    // then, the matrix is solved by the chosen assignment engine
+    private void assignPickupRequests(List<PickupRequest> requestsToAssign) {
+        if (requestsToAssign.isEmpty()) {
+            return;
+        }
+        long deadline = System.nanoTime() + assignmentTimeBudget.toNanos();
+        int[][] estimatedStepsMatrix = new int[requestsToAssign.size()][numberOfElevators];
+        profiler.recordMatrix(requestsToAssign.size(), numberOfElevators);
+        fillEstimatedSteps(estimatedStepsMatrix, requestsToAssign, Set.of(), 0, numberOfElevators);
+
+        if (assignmentEngine == AssignmentEngine.MIN_COST) {
+            int[] assignedElevators = solveMinCostAssignment(estimatedStepsMatrix, deadline);
+            if (assignedElevators != null) {
+                int notAssigned = 0;
+                for (int i = 0; i < assignedElevators.length; i++) {
+                    if (assignedElevators[i] == MinCostAssignmentSolver.NOT_ASSIGNED) {
+                        notAssigned++;
+                    } else {
+                        assignPickupRequest(requestsToAssign.get(i), assignedElevators[i], estimatedStepsMatrix[i]);
+                    }
+                }
+                if (notAssigned > 0) {
+                    logger.error(LogMarkers.HOT_PATH, "{} pickup requests could not be assigned - all elevators are broken (more likely).", notAssigned);
                 }
+                return;
             }
+            logger.warn(LogMarkers.HOT_PATH, "Min-cost assignment exceeded its time budget in step {}, falling back to greedy assignment.", clock.getCurrentStep());
+        }
+        assignPickupRequestsGreedily(requestsToAssign, estimatedStepsMatrix);
+    }
+
+    private int[] solveMinCostAssignment(int[][] estimatedStepsMatrix, long deadline) {
+        int[] slotPenalties = new int[numberOfElevators];
+        boolean[] availableElevators = new boolean[numberOfElevators];
+        for (int j = 0; j < numberOfElevators; j++) {
+            slotPenalties[j] = elevators[j].getEstimatedEnteringSteps();
+            availableElevators[j] = !elevators[j].isBroken(criticalStepsSinceElevatorDoorOpened);
         }
+        return MinCostAssignmentSolver.solve(estimatedStepsMatrix, slotPenalties, availableElevators, deadline);
+    }
+
+    // searches for a minimum time in matrix, assigns the elevator to this request, updates all the estimated arrival times for this elevator
+    // repeat above steps until all pickup requests are assigned
+    private void assignPickupRequestsGreedily(List<PickupRequest> requestsToAssign, int[][] estimatedStepsMatrix) {
         Set<Integer> assignedRequests = new HashSet<>();
 
-        while (assignedRequests.size() < requests.size()) {
+        while (assignedRequests.size() < requestsToAssign.size()) {
             int[] bestFitCoordinates = findMinimumInMatrixAndReturnCoordinates(estimatedStepsMatrix, assignedRequests);
-            elevators[bestFitCoordinates[1]].addPickupRequest(requests.get(bestFitCoordinates[0]));
+            if (bestFitCoordinates[0] == -1) {
+                return;
+            }
+            assignPickupRequest(requestsToAssign.get(bestFitCoordinates[0]), bestFitCoordinates[1], estimatedStepsMatrix[bestFitCoordinates[0]]);
             assignedRequests.add(bestFitCoordinates[0]);
-            modifyEstimatedStepsForGivenElevator(estimatedStepsMatrix, assignedRequests, bestFitCoordinates[1]);
+            modifyEstimatedStepsForGivenElevator(estimatedStepsMatrix, requestsToAssign, assignedRequests, bestFitCoordinates[1]);
         }
 
     }
 
-    private void modifyEstimatedStepsForGivenElevator(int[][] matrix, Set<Integer> rowsToSkip, int elevatorId) {
-        for (int i = 0; i < matrix.length; i++) {
-            if (rowsToSkip.contains(i)) {
-                continue;
+    // estimatedSteps - row of the estimated steps matrix of this request, as it was when the elevator was chosen
+    private void assignPickupRequest(PickupRequest request, int elevatorIndex, int[] estimatedSteps) {
+        Elevator elevator = elevators[elevatorIndex];
+        elevator.addPickupRequest(request);
+        assignments.put(request, elevator);
+        DispatchDecisionEvent event = new DispatchDecisionEvent();
+        if (event.shouldCommit()) {
+            int runnerUp = -1;
+            for (int j = 0; j < estimatedSteps.length; j++) {
+                if (j != elevatorIndex && estimatedSteps[j] != Integer.MAX_VALUE && (runnerUp == -1 || estimatedSteps[j] < estimatedSteps[runnerUp])) {
+                    runnerUp = j;
+                }
             }
-            if (elevators[elevatorId].isBroken(criticalStepsSinceElevatorDoorOpened)) {
-                matrix[i][elevatorId] = Integer.MAX_VALUE;
-            } else {
-                matrix[i][elevatorId] = elevators[elevatorId].estimateNumberOfStepsUntilPickup(requests.get(i));
+            event.step = clock.getCurrentStep();
+            event.requestFloor = request.getFloor();
+            event.requestDirection = request.getDirection().name();
+            event.assignmentEngine = assignmentEngine.name();
+            event.elevator = elevator.getId();
+            event.estimatedSteps = estimatedSteps[elevatorIndex];
+            event.runnerUpElevator = runnerUp;
+            event.runnerUpEstimatedSteps = runnerUp == -1 ? -1 : estimatedSteps[runnerUp];
+            event.commit();
+        }
+    }
+
+    private void modifyEstimatedStepsForGivenElevator(int[][] matrix, List<PickupRequest> requestsToAssign, Set<Integer> rowsToSkip, int elevatorId) {
+        fillEstimatedSteps(matrix, requestsToAssign, rowsToSkip, elevatorId, elevatorId + 1);
+    }
+
+    // fills given columns of the matrix, in parallel when the filled part is large enough
+    private void fillEstimatedSteps(int[][] matrix, List<PickupRequest> requestsToAssign, Set<Integer> rowsToSkip, int fromColumn, int toColumn) {
+        boolean[] brokenElevators = new boolean[numberOfElevators];
+        int workingElevators = 0;
+        for (int j = fromColumn; j < toColumn; j++) {
+            brokenElevators[j] = elevators[j].isBroken(criticalStepsSinceElevatorDoorOpened);
+            if (!brokenElevators[j]) {
+                workingElevators++;
             }
         }
+        long cells = (long) (matrix.length - rowsToSkip.size()) * (toColumn - fromColumn);
+        profiler.recordEstimatorCalls((long) (matrix.length - rowsToSkip.size()) * workingElevators);
+        if (parallelDispatchPool != null && cells >= parallelDispatchThreshold) {
+            parallelDispatchPool.invoke(new EstimatedStepsMatrixTask(matrix, elevators, brokenElevators, requestsToAssign, rowsToSkip,
+                    fromColumn, toColumn, 0, matrix.length));
+        } else {
+            EstimatedStepsMatrixTask.fillRows(matrix, elevators, brokenElevators, requestsToAssign, rowsToSkip,
+                    fromColumn, toColumn, 0, matrix.length);
+        }
     }
 
     private int[] findMinimumInMatrixAndReturnCoordinates(int[][] matrix, Set<Integer> rowsToSkip) {
@@ -102,121 +312,350 @@ public class ElevatorSystem {
             }
         }
         if (row == -1 && column == -1) {
-            logger.error("All rows in matrix were skipped or all elevators are broken (more likely).");
+            logger.error(LogMarkers.HOT_PATH, "All rows in matrix were skipped or all elevators are broken (more likely).");
         }
         return new int[] {row, column};
     }
 
-    // for every elevator that opened door in this step, creates a doorCloser which is responsible for closing
-    // elevator's door after a given number of steps
-    private void createDoorClosers() {
-        for (int i = 0; i < elevators.length; i++) {
-            Elevator currentElevator = elevators[i];
-            if (currentElevator.isDoorClosed() || currentElevator.getStepsSinceDoorOpened() != 0) {
-                continue;
-            }
-            boolean isDeliveryFloor = currentElevator.getDeliveryDestinationFloors().stream()
-                    .anyMatch(x -> x == currentElevator.getCurrentFloor());
-            Optional<PickupRequest> pickupForThisFloor = currentElevator.getPickupRequestsToHandle().stream()
-                    .filter(x -> x.isRequestDone() && x.getFloor() == currentElevator.getCurrentFloor()).findFirst();
-
-            if (isDeliveryFloor && pickupForThisFloor.isEmpty()) {
-                doorClosers.add(new ElevatorDoorCloser(currentElevator, realLeavingSteps));
-            } else if (!isDeliveryFloor && pickupForThisFloor.isPresent()) {
-                doorClosers.add(new ElevatorDoorCloser(currentElevator, pickupForThisFloor.get().getNumberOfEnteringSteps()));
-            } else if (pickupForThisFloor.isPresent()) {
-                doorClosers.add(new ElevatorDoorCloser(currentElevator, pickupForThisFloor.get().getNumberOfEnteringSteps() + realLeavingSteps));
+    // for every elevator that opened door in this step, schedules closing of its door after a given number of steps
+    // and a broken-door check right after the critical number of steps
+    private void scheduleDoorEvents() {
+        int currentStep = clock.getCurrentStep();
+        for (int i = 0; i < elevatorsThatOpenedDoor.size(); i++) {
+            Elevator currentElevator = elevatorsThatOpenedDoor.get(i);
+            boolean isDeliveryFloor = currentElevator.isDeliveryFloor(currentElevator.getCurrentFloor());
+            PickupRequest pickupForThisFloor = currentElevator.findDonePickupRequest(currentElevator.getCurrentFloor());
+
+            int stepsUntilDoorClosed = 0;
+            if (isDeliveryFloor && pickupForThisFloor == null) {
+                stepsUntilDoorClosed = realLeavingSteps;
+            } else if (!isDeliveryFloor && pickupForThisFloor != null) {
+                stepsUntilDoorClosed = pickupForThisFloor.getNumberOfEnteringSteps();
+            } else if (pickupForThisFloor != null) {
+                stepsUntilDoorClosed = pickupForThisFloor.getNumberOfEnteringSteps() + realLeavingSteps;
             } else {
-                logger.error("Elevator opened door for nothing.");
+                logger.error(LogMarkers.HOT_PATH, "Elevator {} opened door for nothing.", currentElevator.getId());
+            }
+            // closing is counted from the next step on, so a door that should be closed after 0 steps is left open
+            if (stepsUntilDoorClosed > 0) {
+                doorClosingSchedule.schedule(currentStep + stepsUntilDoorClosed, currentElevator);
             }
+            brokenDoorChecks.schedule(currentStep + criticalStepsSinceElevatorDoorOpened + 1, currentElevator);
         }
     }
 
-    // invokes doorClosers' steps and removes the one that have already closed their elevator's door
-    private void invokeDoorClosersStepsAndRemoveUnnecessary() {
-        Iterator<ElevatorDoorCloser> iterator = doorClosers.iterator();
-        while (iterator.hasNext()) {
-            ElevatorDoorCloser doorCloser = iterator.next();
-            if (doorCloser.getStepsUntilDoorClosed() == 0) {
-                iterator.remove();
-            } else {
-                doorCloser.step();
-            }
+    // closes the door of elevators whose closing is due in this step
+    private void closeDueDoors() {
+        Elevator elevator;
+        while ((elevator = doorClosingSchedule.pollDue(clock.getCurrentStep())) != null) {
+            elevator.closeDoor();
         }
     }
 
+    // pickups are done only when door is opened and done pickup requests are removed in the same step,
+    // so only elevators that opened door in this step can have any (the list is cleared for the next step)
     private void updateDeliveriesBasedOnDonePickups() {
-        for (int i = 0; i < elevators.length; i++) {
-            for (PickupRequest request: elevators[i].getPickupRequestsToHandle()) {
-                if (request.isRequestDone()) {
-                    elevators[i].addDeliveryDestinationFloorList(request.getDestinationFloors());
-                }
+        if (isParallelPhase(elevatorsThatOpenedDoor.size())) {
+            parallelStepPool.invoke(new ElevatorRangeTask(addDeliveriesOfElevatorThatOpenedDoor, 0, elevatorsThatOpenedDoor.size()));
+        } else {
+            for (int i = 0; i < elevatorsThatOpenedDoor.size(); i++) {
+                elevatorsThatOpenedDoor.get(i).addDeliveriesOfDonePickups();
             }
         }
+        elevatorsThatOpenedDoor.clear();
     }
 
+    // checks only elevators whose broken-door check is due - a broken elevator is checked again in the next step,
+    // until its door is closed (a check of a door that has been closed in the meantime is dropped)
     private void checkForBrokenElevators() {
-        for (int i = 0; i < elevators.length; i++) {
-            if (elevators[i].isBroken(criticalStepsSinceElevatorDoorOpened)) {
-                elevators[i].notifyBrokenElevator();
+        int currentStep = clock.getCurrentStep();
+        Elevator elevator;
+        while ((elevator = brokenDoorChecks.pollDue(currentStep)) != null) {
+            if (elevator.isBroken(criticalStepsSinceElevatorDoorOpened)) {
+                elevator.notifyBrokenElevator();
+                passengerStatistics.recordBrokenElevator(elevator.getId());
+                brokenDoorChecks.schedule(currentStep + 1, elevator);
             }
         }
     }
 
     private void removeDonePickups() {
-        requests.removeIf(PickupRequest::isRequestDone);
+        Iterator<PickupRequest> iterator = requests.iterator();
+        while (iterator.hasNext()) {
+            PickupRequest request = iterator.next();
+            if (request.isRequestDone()) {
+                iterator.remove();
+                Elevator elevator = assignments.remove(request);
+                if (elevator != null) {
+                    elevator.removePickupRequest(request);
+                    passengerStatistics.recordPickup(elevator.getId(), request);
+                }
+            }
+        }
     }
 
+    // in parallel, deliveries are removed by workers and passengers' statistics are recorded afterwards
     private void removeSuccessfulDeliveries() {
+        if (isParallelPhase(elevators.length)) {
+            parallelStepPool.invoke(new ElevatorRangeTask(removeSuccessfulDelivery, 0, elevators.length));
+            for (int i = 0; i < elevators.length; i++) {
+                if (elevatorsDelivering[i]) {
+                    elevatorsDelivering[i] = false;
+                    passengerStatistics.recordDeliveries(i, bank.currentFloors[i], clock.getCurrentStep());
+                }
+            }
+            return;
+        }
+        long[] deliveries = bank.bitmaps[ElevatorBank.DELIVERIES];
         for (int i = 0; i < elevators.length; i++) {
-            if (elevators[i].getDeliveryDestinationFloors().contains(elevators[i].getCurrentFloor())) {
-                elevators[i].removeDelivery(elevators[i].getCurrentFloor());
+            int floor = bank.currentFloors[i];
+            if (ElevatorBank.testBit(deliveries, i * bank.wordsPerElevator, bank.wordsPerElevator, floor)) {
+                elevators[i].removeDelivery(floor);
+                passengerStatistics.recordDeliveries(i, floor, clock.getCurrentStep());
             }
         }
     }
 
+    private void removeSuccessfulDelivery(int elevatorIndex) {
+        int floor = bank.currentFloors[elevatorIndex];
+        if (elevators[elevatorIndex].isDeliveryFloor(floor)) {
+            elevators[elevatorIndex].removeDelivery(floor);
+            elevatorsDelivering[elevatorIndex] = true;
+        }
+    }
+
+    // invokes elevators' steps (a loop over the bank's arrays) and collects the ones that opened door in this step
+    // in parallel, activities of every elevator are passed to listeners after all the steps, in the order of elevators
     private void invokeElevatorsSteps() {
+        if (!isParallelPhase(elevators.length)) {
+            bank.stepAll(elevatorsThatOpenedDoor);
+            return;
+        }
+        parallelStepPool.invoke(new ElevatorRangeTask(stepElevator, 0, elevators.length));
         for (int i = 0; i < elevators.length; i++) {
-            elevators[i].step();
+            elevators[i].flushDeferredActivities();
+            if (elevatorsOpeningDoor[i]) {
+                elevatorsOpeningDoor[i] = false;
+                elevatorsThatOpenedDoor.add(elevators[i]);
+            }
         }
     }
 
+    private void stepElevatorInParallel(int elevatorIndex) {
+        Elevator elevator = elevators[elevatorIndex];
+        boolean wasDoorClosed = bank.doorClosed[elevatorIndex];
+        elevator.setActivitiesDeferred(true);
+        bank.step(elevatorIndex);
+        elevator.setActivitiesDeferred(false);
+        elevatorsOpeningDoor[elevatorIndex] = wasDoorClosed && !bank.doorClosed[elevatorIndex];
+    }
+
     private void clearElevatorPickupRequests() {
         for (int i = 0; i < elevators.length; i++) {
             elevators[i].clearPickupRequests();
         }
+        assignments.clear();
+    }
+
+    // limits activities kept in elevators' activity logs (unlimited by default)
+    // evicted activities are passed to the spill listener (e.g. ActivityJournal), null - they are dropped
+    public void setActivityRetention(ActivityRetention retention, ActivityLogListener spillListener) {
+        for (int i = 0; i < elevators.length; i++) {
+            elevators[i].setActivityRetention(retention, spillListener);
+        }
+        evictActivities();
+    }
+
+    // moves step windows of activity logs to the current step, elevator after elevator (so evicted activities are spilled
+    // in step order, as they were logged)
+    private void evictActivities() {
+        for (int i = 0; i < elevators.length; i++) {
+            elevators[i].evictActivitiesUpTo(clock.getCurrentStep());
+        }
+    }
+
+    // every activity of every elevator is passed to the listener (e.g. ActivityJournal) as soon as it is logged
+    public void addActivityLogListener(ActivityLogListener listener) {
+        for (int i = 0; i < elevators.length; i++) {
+            elevators[i].addActivityLogListener(listener);
+        }
+    }
+
+    // creates a publisher of activities of all elevators, subscribers receive one batch per step (delivered on given executor)
+    public ActivityPublisher publishActivities(Executor executor, int bufferCapacity, ActivityPublisher.OverflowPolicy overflowPolicy) {
+        ActivityPublisher publisher = new ActivityPublisher(executor, bufferCapacity, overflowPolicy);
+        addActivityLogListener(publisher);
+        activityPublishers.add(publisher);
+        return publisher;
+    }
+
+    private void publishActivities(int fromStep) {
+        for (int i = 0; i < activityPublishers.size(); i++) {
+            activityPublishers.get(i).publish(fromStep, clock.getCurrentStep());
+        }
     }
 
     // creates a pickup request (somebody clicks on a button at some floor)
+    // safe to call from any thread - the request is queued and taken into account at the beginning of the next step
     public void pickup(PickupRequest request) {
+        incomingRequests.add(request);
+    }
+
+    // the only consumer of the queue is the thread performing steps
+    private void addIncomingPickups() {
+        PickupRequest request;
+        while ((request = incomingRequests.poll()) != null) {
+            addRequest(request);
+        }
+    }
+
+    // destination floors are made known to the bank here, so that its bitmaps are never widened during a parallel phase
+    private void addRequest(PickupRequest request) {
+        request.setCreatedStep(clock.getCurrentStep());
+        List<Integer> destinationFloors = request.getDestinationFloors();
+        for (int i = 0; i < destinationFloors.size(); i++) {
+            bank.ensureFloor(destinationFloors.get(i));
+        }
         requests.add(request);
     }
 
+    // creates a pickup request at the beginning of given step (a step that has already started - at the beginning of the next one)
+    // unlike pickup(), it has to be called by the thread performing steps
+    public void schedulePickup(int step, PickupRequest request) {
+        scheduledPickups.computeIfAbsent(step, x -> new ArrayList<>()).add(request);
+    }
+
+    private void addScheduledPickups() {
+        while (!scheduledPickups.isEmpty() && scheduledPickups.firstKey() <= clock.getCurrentStep()) {
+            for (PickupRequest request : scheduledPickups.pollFirstEntry().getValue()) {
+                addRequest(request);
+            }
+        }
+    }
+
     // returns current state of all elevators
     public Elevator[] status() {
         return elevators;
     }
 
+    // returns state of all elevators at the end of the last step - safe to call from any thread, never blocks the step
+    public ElevatorSystemSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void publishSnapshot() {
+        ElevatorSnapshot[] elevatorSnapshots = new ElevatorSnapshot[elevators.length];
+        for (int i = 0; i < elevators.length; i++) {
+            Elevator elevator = elevators[i];
+            elevatorSnapshots[i] = new ElevatorSnapshot(elevator.getId(), elevator.getCurrentFloor(), elevator.isDoorClosed(),
+                    elevator.getStepsSinceDoorOpened(), elevator.getState(), elevator.isBroken(criticalStepsSinceElevatorDoorOpened),
+                    elevator.getNumberOfDeliveries(), elevator.getNumberOfPickupRequests());
+        }
+        long version = snapshot == null ? 0 : snapshot.getVersion() + 1;
+        snapshot = new ElevatorSystemSnapshot(version, clock.getCurrentStep(), List.of(elevatorSnapshots), requests.size());
+    }
+
     // performs a step in our simulation
-    // (1) pickup requests are assigned to optimal elevators
+    // (0) pickup requests queued since the last step and scheduled pickup requests of this step are created
+    // (1) pickup requests are assigned to optimal elevators (all of them or only the affected ones, see DispatchMode)
     // (2) elevators' steps are invoked
-    // (3) checks if any elevator is broken. if so - notify them
-    // (4) invokes doorCloser steps, removes done doorClosers
-    // (5) creates doorClosers where necessary
+    // (3) checks if any elevator due for a broken-door check is broken. if so - notify them
+    // (4) closes the door of elevators whose closing is due
+    // (5) schedules door closing and broken-door checks for elevators that opened door
     // (6) updates deliveries (buttons inside elevators) base on pickup requests
-    // (7) removes successful deliveries and done pickup requests
+    // (7) removes successful deliveries and done pickup requests (also from elevators they were assigned to), records passengers' times
+    //     and evicts activities that fell out of the step window retention
+    // phases (2), (6) and removing deliveries in (7) can be performed in parallel, see setParallelSteps()
+    // (8) activities of this step are published to subscribers, snapshot of the system is published for readers
+    // while a JFR recording is on, the step with durations of its phases, dispatch decisions and door cycles are recorded
+    // as events (com.system.Step, com.system.DispatchDecision, com.system.DoorOpened, com.system.DoorCycle) - without a recording
+    // they cost nothing, with a recording no stack traces are taken
     public void step() {
-        incrementCurrentStep();
-        clearElevatorPickupRequests();
-        assignPickupRequests();
+        StepEvent event = new StepEvent();
+        profiler.startStep(event.isEnabled());
+        event.begin();
+        clock.advance();
+        addIncomingPickups();
+        addScheduledPickups();
+        profiler.endPhase(StepPhase.REQUEST_INTAKE);
+        dispatchPickupRequests();
+        profiler.endPhase(StepPhase.DISPATCH);
         invokeElevatorsSteps();
+        profiler.endPhase(StepPhase.ELEVATOR_STEPS);
         checkForBrokenElevators();
-        invokeDoorClosersStepsAndRemoveUnnecessary();
-        createDoorClosers();
+        closeDueDoors();
+        scheduleDoorEvents();
+        profiler.endPhase(StepPhase.DOOR_HANDLING);
         updateDeliveriesBasedOnDonePickups();
         removeSuccessfulDeliveries();
         removeDonePickups();
+        evictActivities();
+        profiler.endPhase(StepPhase.BOOKKEEPING);
+        publishActivities(clock.getCurrentStep());
+        publishSnapshot();
+        profiler.endPhase(StepPhase.PUBLISHING);
+        profiler.endStep();
+        if (event.shouldCommit()) {
+            commitStepEvent(event);
+        }
     }
 
+    private void commitStepEvent(StepEvent event) {
+        event.step = clock.getCurrentStep();
+        event.pendingRequests = requests.size();
+        event.requestIntake = profiler.getLastPhaseNanos(StepPhase.REQUEST_INTAKE);
+        event.dispatch = profiler.getLastPhaseNanos(StepPhase.DISPATCH);
+        event.elevatorSteps = profiler.getLastPhaseNanos(StepPhase.ELEVATOR_STEPS);
+        event.doorHandling = profiler.getLastPhaseNanos(StepPhase.DOOR_HANDLING);
+        event.bookkeeping = profiler.getLastPhaseNanos(StepPhase.BOOKKEEPING);
+        event.publishing = profiler.getLastPhaseNanos(StepPhase.PUBLISHING);
+        event.commit();
+    }
+
+    // runs the simulation until given step
+    // in INCREMENTAL mode, steps in which elevators only travel between stops or wait with open door are not performed
+    // one by one - the simulation jumps straight to the next step at which anything can change (same activity logs)
+    public void advanceTo(int targetStep) {
+        while (clock.getCurrentStep() < targetStep) {
+            int quietSteps = countQuietSteps(targetStep - clock.getCurrentStep());
+            if (quietSteps > 0) {
+                skipQuietSteps(quietSteps);
+            } else {
+                step();
+            }
+        }
+    }
+
+    // number of following steps (up to limit) in which no pickup is assigned, no door is opened or closed and no elevator breaks
+    private int countQuietSteps(int limit) {
+        if (dispatchMode != DispatchMode.INCREMENTAL || assignments.size() < requests.size() || !incomingRequests.isEmpty()) {
+            return 0;
+        }
+        int res = limit;
+        if (!scheduledPickups.isEmpty()) {
+            res = Math.min(res, scheduledPickups.firstKey() - clock.getCurrentStep() - 1);
+        }
+        if (fullReassignmentInterval > 0) {
+            res = Math.min(res, fullReassignmentInterval - clock.getCurrentStep() % fullReassignmentInterval - 1);
+        }
+        for (int i = 0; i < elevators.length && res > 0; i++) {
+            if (elevators[i].isDispatchStateChanged() || elevatorsBrokenAtLastDispatch[i]) {
+                return 0;
+            }
+            res = Math.min(res, elevators[i].countQuietSteps(criticalStepsSinceElevatorDoorOpened));
+        }
+        res = Math.min(res, doorClosingSchedule.nextStep() - clock.getCurrentStep() - 1);
+        res = Math.min(res, brokenDoorChecks.nextStep() - clock.getCurrentStep() - 1);
+        return Math.max(res, 0);
+    }
 
+    private void skipQuietSteps(int steps) {
+        for (int i = 0; i < elevators.length; i++) {
+            elevators[i].skipQuietSteps(steps);
+        }
+        clock.advance(steps);
+        evictActivities();
+        publishActivities(clock.getCurrentStep() - steps + 1);
+        publishSnapshot();
+    }
 }
@@ -0,0 +1,13 @@
+package com.system;
+
+import java.util.List;
+import lombok.Value;
+
+// immutable state of the whole system published at the end of a step - version grows with every published snapshot
+@Value
+public class ElevatorSystemSnapshot {
+    long version;
+    int step;
+    List<ElevatorSnapshot> elevators;
+    int numberOfPendingRequests;
+}
@@ -0,0 +1,63 @@
+package com.system;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RecursiveAction;
+
+// fills given columns of estimated steps matrix (rows - pickup requests, columns - elevators)
+// estimations only read elevators' state, so rows are split between fork-join workers
+class EstimatedStepsMatrixTask extends RecursiveAction {
+
+    private static final int MIN_CELLS_PER_TASK = 256;
+
+    private final int[][] matrix;
+    private final Elevator[] elevators;
+    private final boolean[] brokenElevators;
+    private final List<PickupRequest> requests;
+    private final Set<Integer> rowsToSkip;
+    private final int fromColumn;
+    private final int toColumn;
+    private final int fromRow;
+    private final int toRow;
+
+    EstimatedStepsMatrixTask(int[][] matrix, Elevator[] elevators, boolean[] brokenElevators, List<PickupRequest> requests,
+                             Set<Integer> rowsToSkip, int fromColumn, int toColumn, int fromRow, int toRow) {
+        this.matrix = matrix;
+        this.elevators = elevators;
+        this.brokenElevators = brokenElevators;
+        this.requests = requests;
+        this.rowsToSkip = rowsToSkip;
+        this.fromColumn = fromColumn;
+        this.toColumn = toColumn;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+    }
+
+    @Override
+    protected void compute() {
+        int rows = toRow - fromRow;
+        if (rows <= 1 || (long) rows * (toColumn - fromColumn) <= MIN_CELLS_PER_TASK) {
+            fillRows(matrix, elevators, brokenElevators, requests, rowsToSkip, fromColumn, toColumn, fromRow, toRow);
+            return;
+        }
+        int middleRow = fromRow + rows / 2;
+        invokeAll(new EstimatedStepsMatrixTask(matrix, elevators, brokenElevators, requests, rowsToSkip, fromColumn, toColumn, fromRow, middleRow),
+                new EstimatedStepsMatrixTask(matrix, elevators, brokenElevators, requests, rowsToSkip, fromColumn, toColumn, middleRow, toRow));
+    }
+
+    static void fillRows(int[][] matrix, Elevator[] elevators, boolean[] brokenElevators, List<PickupRequest> requests,
+                         Set<Integer> rowsToSkip, int fromColumn, int toColumn, int fromRow, int toRow) {
+        for (int i = fromRow; i < toRow; i++) {
+            if (rowsToSkip.contains(i)) {
+                continue;
+            }
+            for (int j = fromColumn; j < toColumn; j++) {
+                if (brokenElevators[j]) {
+                    matrix[i][j] = Integer.MAX_VALUE;
+                } else {
+                    matrix[i][j] = elevators[j].estimateNumberOfStepsUntilPickup(requests.get(i));
+                }
+            }
+        }
+    }
+}
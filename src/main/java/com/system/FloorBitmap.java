@@ -0,0 +1,138 @@
+package com.system;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// floors of one elevator kept in one of the bank's bitmaps (a floor is either set or not), with the queries of FloorCounter
+// all ranges are inclusive, parts of a range outside of known floors are ignored
+class FloorBitmap {
+
+    private final ElevatorBank bank;
+    private final int bitmap;
+    private final int index;
+    private final Set<Integer> floorsView;
+
+    FloorBitmap(ElevatorBank bank, int bitmap, int index) {
+        this.bank = bank;
+        this.bitmap = bitmap;
+        this.index = index;
+        this.floorsView = new FloorsView();
+    }
+
+    void addIfAbsent(int floor) {
+        if (floor < 0) {
+            throw new IndexOutOfBoundsException("Floor " + floor + " is below ground level.");
+        }
+        bank.ensureFloor(floor);
+        bits()[base() + (floor >> 6)] |= 1L << floor;
+    }
+
+    void remove(int floor) {
+        if (contains(floor)) {
+            bits()[base() + (floor >> 6)] &= ~(1L << floor);
+        }
+    }
+
+    void clear() {
+        long[] bits = bits();
+        int base = base();
+        for (int w = 0; w < bank.wordsPerElevator; w++) {
+            bits[base + w] = 0;
+        }
+    }
+
+    boolean isEmpty() {
+        return ElevatorBank.isEmpty(bits(), base(), bank.wordsPerElevator);
+    }
+
+    boolean contains(int floor) {
+        return ElevatorBank.testBit(bits(), base(), bank.wordsPerElevator, floor);
+    }
+
+    int count(int fromFloor, int toFloor) {
+        return ElevatorBank.countBits(bits(), base(), bank.wordsPerElevator, fromFloor, toFloor);
+    }
+
+    boolean any(int fromFloor, int toFloor) {
+        return min(fromFloor, toFloor) != -1;
+    }
+
+    // returns -1 when there is no floor in given range
+    int min(int fromFloor, int toFloor) {
+        if (Math.max(fromFloor, 0) > toFloor) {
+            return -1;
+        }
+        int floor = ElevatorBank.nextSetBit(bits(), base(), bank.wordsPerElevator, fromFloor);
+        return floor <= toFloor ? floor : -1;
+    }
+
+    // returns -1 when there is no floor in given range
+    int max(int fromFloor, int toFloor) {
+        if (fromFloor > toFloor) {
+            return -1;
+        }
+        int floor = ElevatorBank.previousSetBit(bits(), base(), bank.wordsPerElevator, toFloor);
+        return floor >= fromFloor ? floor : -1;
+    }
+
+    // read-only view of set floors
+    Set<Integer> asSet() {
+        return floorsView;
+    }
+
+    // bitmaps are widened (replaced) when a floor does not fit, so they are never cached
+    private long[] bits() {
+        return bank.bitmaps[bitmap];
+    }
+
+    private int base() {
+        return index * bank.wordsPerElevator;
+    }
+
+    @Override
+    public String toString() {
+        return floorsView.toString();
+    }
+
+    private class FloorsView extends AbstractSet<Integer> {
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Integer && FloorBitmap.this.contains((Integer) o);
+        }
+
+        @Override
+        public int size() {
+            return count(0, FloorCounter.NO_LIMIT);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return FloorBitmap.this.isEmpty();
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<>() {
+                private int next = min(0, FloorCounter.NO_LIMIT);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Integer next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    int res = next;
+                    next = min(next + 1, FloorCounter.NO_LIMIT);
+                    return res;
+                }
+            };
+        }
+    }
+}
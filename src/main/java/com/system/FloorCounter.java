@@ -0,0 +1,118 @@
+package com.system;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// counts entries per floor - a fenwick tree answers range counts, a bitset of non-empty floors answers min/max queries
+// all ranges are inclusive, parts of a range outside of known floors are ignored
+class FloorCounter {
+
+    static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    private int[] counts;
+    private int[] tree;
+    private final BitSet nonEmptyFloors;
+
+    FloorCounter(int numberOfFloors) {
+        this.counts = new int[numberOfFloors + 1];
+        this.tree = new int[numberOfFloors + 2];
+        this.nonEmptyFloors = new BitSet(numberOfFloors + 1);
+    }
+
+    void add(int floor) {
+        if (floor >= counts.length) {
+            grow(floor);
+        }
+        counts[floor]++;
+        nonEmptyFloors.set(floor);
+        for (int i = floor + 1; i < tree.length; i += i & -i) {
+            tree[i]++;
+        }
+    }
+
+    void remove(int floor) {
+        if (!contains(floor)) {
+            return;
+        }
+        if (--counts[floor] == 0) {
+            nonEmptyFloors.clear(floor);
+        }
+        for (int i = floor + 1; i < tree.length; i += i & -i) {
+            tree[i]--;
+        }
+    }
+
+    void clear() {
+        for (int floor = nonEmptyFloors.nextSetBit(0); floor >= 0; floor = nonEmptyFloors.nextSetBit(floor + 1)) {
+            while (counts[floor] > 0) {
+                remove(floor);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return nonEmptyFloors.isEmpty();
+    }
+
+    boolean contains(int floor) {
+        return floor >= 0 && floor < counts.length && counts[floor] > 0;
+    }
+
+    int count(int fromFloor, int toFloor) {
+        int to = Math.min(toFloor, counts.length - 1);
+        int from = Math.max(fromFloor, 0);
+        if (from > to) {
+            return 0;
+        }
+        return prefixCount(to) - prefixCount(from - 1);
+    }
+
+    boolean any(int fromFloor, int toFloor) {
+        return min(fromFloor, toFloor) != -1;
+    }
+
+    // returns -1 when there is no entry in given range
+    int min(int fromFloor, int toFloor) {
+        int from = Math.max(fromFloor, 0);
+        if (from > toFloor) {
+            return -1;
+        }
+        int floor = nonEmptyFloors.nextSetBit(from);
+        return floor <= toFloor ? floor : -1;
+    }
+
+    // returns -1 when there is no entry in given range
+    int max(int fromFloor, int toFloor) {
+        int to = Math.min(toFloor, counts.length - 1);
+        if (fromFloor > to || to < 0) {
+            return -1;
+        }
+        int floor = nonEmptyFloors.previousSetBit(to);
+        return floor >= fromFloor ? floor : -1;
+    }
+
+    private int prefixCount(int floor) {
+        int res = 0;
+        for (int i = floor + 1; i > 0; i -= i & -i) {
+            res += tree[i];
+        }
+        return res;
+    }
+
+    private void grow(int floor) {
+        counts = Arrays.copyOf(counts, Math.max(floor + 1, counts.length * 2));
+        tree = new int[counts.length + 1];
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += counts[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return nonEmptyFloors.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package com.system;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// histogram of non-negative values with log-linear buckets - values below 16 are counted exactly, above that every
+// power of two is split into 16 buckets, so a reported percentile is at most ~6% above the real value
+// values are recorded by a single thread (without locks or contended atomics), read from any thread
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUMBER_OF_BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final int numberOfBuckets;
+    private final AtomicLongArray counts;
+    private final AtomicLong count;
+    private final AtomicLong sum;
+    private final AtomicLong max;
+
+    public Histogram() {
+        this(Long.MAX_VALUE);
+    }
+
+    // values above highestTrackedValue are counted in the last bucket (fewer buckets - less memory),
+    // percentiles that fall into it are reported as the real maximum
+    public Histogram(long highestTrackedValue) {
+        this.numberOfBuckets = bucketIndex(Math.max(highestTrackedValue, 0)) + 1;
+        this.counts = new AtomicLongArray(numberOfBuckets);
+        this.count = new AtomicLong();
+        this.sum = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    // negative values are recorded as 0
+    public void record(long value) {
+        value = Math.max(value, 0);
+        int bucket = Math.min(bucketIndex(value), numberOfBuckets - 1);
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+        sum.lazySet(sum.get() + value);
+        if (value > max.get()) {
+            max.lazySet(value);
+        }
+        count.lazySet(count.get() + 1);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    // the smallest recorded value that is not lower than given fraction (0 - 1) of values, rounded up to its bucket
+    // (never above the maximum, the maximum for the last - overflow - bucket, 0 for an empty histogram)
+    public long getValueAtPercentile(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * n));
+        long seen = 0;
+        for (int i = 0; i < numberOfBuckets; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return i == numberOfBuckets - 1 ? max.get() : Math.min(highestValueOfBucket(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // called concurrently with recording, the value being recorded may partially survive the reset
+    public void reset() {
+        for (int i = 0; i < numberOfBuckets; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowestValueOfBucket(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << shift;
+    }
+
+    static long highestValueOfBucket(int bucket) {
+        return bucket == NUMBER_OF_BUCKETS - 1 ? Long.MAX_VALUE : lowestValueOfBucket(bucket + 1) - 1;
+    }
+}
@@ -0,0 +1,209 @@
+package com.system;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// parses a single-line, flat JSON object - values can be integers, strings, booleans, null or arrays of those
+// (nested objects are not needed by trace files and are not supported)
+class JsonLineParser {
+
+    private final String line;
+    private int position;
+
+    private JsonLineParser(String line) {
+        this.line = line;
+        this.position = 0;
+    }
+
+    static Map<String, Object> parseObject(String line) {
+        JsonLineParser parser = new JsonLineParser(line);
+        Map<String, Object> res = parser.readObject();
+        parser.skipWhitespace();
+        if (parser.position != line.length()) {
+            throw parser.error("unexpected characters after the object");
+        }
+        return res;
+    }
+
+    static int getInt(Map<String, Object> object, String key) {
+        Object value = object.get(key);
+        if (!(value instanceof Long number) || number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Field \"" + key + "\" has to be an integer, got: " + value);
+        }
+        return number.intValue();
+    }
+
+    static int getInt(Map<String, Object> object, String key, int defaultValue) {
+        return object.containsKey(key) ? getInt(object, key) : defaultValue;
+    }
+
+    static String getString(Map<String, Object> object, String key, String defaultValue) {
+        Object value = object.getOrDefault(key, defaultValue);
+        if (!(value instanceof String string)) {
+            throw new IllegalArgumentException("Field \"" + key + "\" has to be a string, got: " + value);
+        }
+        return string;
+    }
+
+    static List<Integer> getIntList(Map<String, Object> object, String key) {
+        if (!(object.get(key) instanceof List<?> values)) {
+            throw new IllegalArgumentException("Field \"" + key + "\" has to be an array, got: " + object.get(key));
+        }
+        List<Integer> res = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (!(value instanceof Long number) || number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Field \"" + key + "\" has to contain integers only, got: " + value);
+            }
+            res.add(number.intValue());
+        }
+        return res;
+    }
+
+    private Map<String, Object> readObject() {
+        skipWhitespace();
+        expect('{');
+        Map<String, Object> res = new HashMap<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return res;
+        }
+        while (true) {
+            skipWhitespace();
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            res.put(key, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                return res;
+            }
+        }
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '"') {
+            return readString();
+        } else if (c == '[') {
+            return readArray();
+        } else if (c == '-' || Character.isDigit(c)) {
+            return readNumber();
+        } else if (line.startsWith("true", position)) {
+            position += 4;
+            return Boolean.TRUE;
+        } else if (line.startsWith("false", position)) {
+            position += 5;
+            return Boolean.FALSE;
+        } else if (line.startsWith("null", position)) {
+            position += 4;
+            return null;
+        }
+        throw error("unexpected value");
+    }
+
+    private List<Object> readArray() {
+        expect('[');
+        List<Object> res = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return res;
+        }
+        while (true) {
+            res.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                return res;
+            }
+        }
+    }
+
+    private Long readNumber() {
+        int start = position;
+        if (peek() == '-') {
+            position++;
+        }
+        while (position < line.length() && Character.isDigit(line.charAt(position))) {
+            position++;
+        }
+        if (position < line.length() && (line.charAt(position) == '.' || line.charAt(position) == 'e' || line.charAt(position) == 'E')) {
+            throw error("only integer numbers are supported");
+        }
+        try {
+            return Long.parseLong(line.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("invalid number");
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder res = new StringBuilder();
+        while (true) {
+            if (position >= line.length()) {
+                throw error("unterminated string");
+            }
+            char c = line.charAt(position++);
+            if (c == '"') {
+                return res.toString();
+            }
+            if (c == '\\') {
+                if (position >= line.length()) {
+                    throw error("unterminated string");
+                }
+                char escaped = line.charAt(position++);
+                switch (escaped) {
+                    case 'n' -> res.append('\n');
+                    case 't' -> res.append('\t');
+                    case 'r' -> res.append('\r');
+                    case 'b' -> res.append('\b');
+                    case 'f' -> res.append('\f');
+                    case 'u' -> {
+                        if (position + 4 > line.length()) {
+                            throw error("invalid unicode escape");
+                        }
+                        res.append((char) Integer.parseInt(line.substring(position, position + 4), 16));
+                        position += 4;
+                    }
+                    default -> res.append(escaped);
+                }
+            } else {
+                res.append(c);
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= line.length()) {
+            throw error("unexpected end of line");
+        }
+        return line.charAt(position);
+    }
+
+    private void expect(char expected) {
+        if (peek() != expected) {
+            throw error("expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid JSON at position " + position + " (" + message + "): " + line);
+    }
+}
@@ -0,0 +1,13 @@
+package com.system;
+
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+
+// markers of log messages, used by logging configurations to filter them
+final class LogMarkers {
+    // messages logged from inside steps - they may repeat every step, so production configuration rate-limits them
+    static final Marker HOT_PATH = MarkerManager.getMarker("HOT_PATH");
+
+    private LogMarkers() {
+    }
+}
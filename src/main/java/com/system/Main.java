@@ -1,12 +1,27 @@
 package com.system;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--replay")) {
+            replay(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--generate")) {
+            generate(args);
+            return;
+        }
         Scanner scanner = new Scanner(System.in);
 
         System.out.println("Cześć, witaj w prostym symulatorze jazdy wind w budynku!\n");
@@ -50,6 +65,52 @@ public class Main {
         System.out.println("\nDzięki, do zobaczenia!");
     }
 
+    // non-interactive mode: --replay <trace.jsonl> [<activities.jsonl>]
+    public static void replay(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Użycie: --replay <plik ze śladem .jsonl> [<plik wynikowy z aktywnościami .jsonl>]");
+            return;
+        }
+        ReplaySummary summary;
+        try (BufferedReader trace = Files.newBufferedReader(Path.of(args[1]), StandardCharsets.UTF_8);
+             BufferedWriter output = args.length == 3 ? Files.newBufferedWriter(Path.of(args[2]), StandardCharsets.UTF_8) : null) {
+            summary = new TraceReplay(trace, output).run();
+        }
+        System.out.println("Odtworzono " + summary.getRequests() + " wezwań windy w " + summary.getSteps() + " krokach symulacji ("
+                + summary.getActivities() + " zapisanych aktywności, " + summary.getElapsedNanos() / 1_000_000 + " ms).");
+        Histogram waitSteps = summary.getPassengers().getWaitSteps();
+        Histogram journeySteps = summary.getPassengers().getJourneySteps();
+        System.out.println("Czas oczekiwania na windę (w krokach): mediana " + waitSteps.getValueAtPercentile(0.5)
+                + ", 99. percentyl " + waitSteps.getValueAtPercentile(0.99) + ", maksimum " + waitSteps.getMax() + ".");
+        System.out.println("Czas całej podróży (w krokach): mediana " + journeySteps.getValueAtPercentile(0.5)
+                + ", 99. percentyl " + journeySteps.getValueAtPercentile(0.99) + ", maksimum " + journeySteps.getMax() + ".");
+    }
+
+    // non-interactive mode: --generate <trace.jsonl> <profile> <elevators> <floors> <requests> <arrivals per step> <seed>
+    // (elevators start evenly spread over the building, other parameters are the minimal ones accepted by the menu)
+    public static void generate(String[] args) throws IOException {
+        if (args.length != 8) {
+            System.out.println("Użycie: --generate <plik wynikowy .jsonl> <" + Arrays.toString(TrafficProfile.values())
+                    + "> <liczba wind> <liczba pięter> <liczba wezwań> <średnia liczba wezwań na krok> <ziarno>");
+            return;
+        }
+        int numberOfElevators = Integer.parseInt(args[3]);
+        int numberOfFloors = Integer.parseInt(args[4]);
+        int[] startingFloors = new int[numberOfElevators];
+        for (int i = 0; i < numberOfElevators; i++) {
+            startingFloors[i] = (int) ((long) i * numberOfFloors / numberOfElevators);
+        }
+        TrafficGenerator generator = new TrafficGenerator(Long.parseLong(args[7]), numberOfFloors,
+                TrafficProfile.valueOf(args[2]), Double.parseDouble(args[6]));
+        long written;
+        try (BufferedWriter output = Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            TraceWriter writer = new TraceWriter(output);
+            writer.writeBuilding(numberOfElevators, numberOfFloors, 5, 1, 1, 1, startingFloors);
+            written = writer.writePickups(generator.requests(1, Long.parseLong(args[5])));
+        }
+        System.out.println("Zapisano " + written + " wezwań windy do pliku " + args[1] + ".");
+    }
+
     public static void pickup(Scanner scanner, int numberOfFloors, ElevatorSystem elevatorSystem) {
         System.out.println("Wybrałeś opcję: 1) Stworzyć nowe przywołanie windy. Niezbędne jest podanie parametrów przywołania windy.");
         int requestFloor = requestInt(scanner, "Podaj piętro, na którym następuje wezwanie windy: ", 0, numberOfFloors);
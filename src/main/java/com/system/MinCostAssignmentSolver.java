@@ -0,0 +1,106 @@
+package com.system;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// solves pickup requests assignment as a rectangular min-cost assignment problem (hungarian algorithm with potentials)
+// every available elevator is split into "slots" - k-th request handled by an elevator costs its estimated steps
+// plus k times the elevator's slot penalty, so that the requests are not all given to a single elevator
+class MinCostAssignmentSolver {
+
+    static final int NOT_ASSIGNED = -1;
+    private static final long FORBIDDEN_COST = Long.MAX_VALUE / 4;
+
+    private MinCostAssignmentSolver() {
+    }
+
+    // returns elevator index for every row of estimatedSteps (NOT_ASSIGNED when there is no available elevator)
+    // or null, when the deadline (System.nanoTime() based) has passed before the solution was found
+    static int[] solve(int[][] estimatedSteps, int[] slotPenalties, boolean[] availableElevators, long deadlineNanos) {
+        int numberOfRequests = estimatedSteps.length;
+        int[] result = new int[numberOfRequests];
+        Arrays.fill(result, NOT_ASSIGNED);
+
+        int[] columnElevators = IntStream.range(0, availableElevators.length).filter(x -> availableElevators[x]).toArray();
+        if (numberOfRequests == 0 || columnElevators.length == 0) {
+            return result;
+        }
+        int slotsPerElevator = Math.min(numberOfRequests,
+                2 * ((numberOfRequests + columnElevators.length - 1) / columnElevators.length));
+        int numberOfColumns = columnElevators.length * slotsPerElevator;
+
+        // 1-indexed arrays, row 0 and column 0 are auxiliary
+        long[] rowPotentials = new long[numberOfRequests + 1];
+        long[] columnPotentials = new long[numberOfColumns + 1];
+        int[] columnRows = new int[numberOfColumns + 1];
+        int[] way = new int[numberOfColumns + 1];
+        long[] minValues = new long[numberOfColumns + 1];
+        boolean[] used = new boolean[numberOfColumns + 1];
+
+        for (int i = 1; i <= numberOfRequests; i++) {
+            if (System.nanoTime() - deadlineNanos > 0) {
+                return null;
+            }
+            columnRows[0] = i;
+            int currentColumn = 0;
+            Arrays.fill(minValues, Long.MAX_VALUE);
+            Arrays.fill(used, false);
+            do {
+                used[currentColumn] = true;
+                int currentRow = columnRows[currentColumn];
+                long delta = Long.MAX_VALUE;
+                int nextColumn = 0;
+                for (int j = 1; j <= numberOfColumns; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    int elevator = columnElevators[(j - 1) / slotsPerElevator];
+                    int slot = (j - 1) % slotsPerElevator;
+                    long reducedCost = cost(estimatedSteps[currentRow - 1][elevator], slot, slotPenalties[elevator])
+                            - rowPotentials[currentRow] - columnPotentials[j];
+                    if (reducedCost < minValues[j]) {
+                        minValues[j] = reducedCost;
+                        way[j] = currentColumn;
+                    }
+                    if (minValues[j] < delta) {
+                        delta = minValues[j];
+                        nextColumn = j;
+                    }
+                }
+                for (int j = 0; j <= numberOfColumns; j++) {
+                    if (used[j]) {
+                        rowPotentials[columnRows[j]] += delta;
+                        columnPotentials[j] -= delta;
+                    } else {
+                        minValues[j] -= delta;
+                    }
+                }
+                currentColumn = nextColumn;
+            } while (columnRows[currentColumn] != 0);
+            do {
+                int previousColumn = way[currentColumn];
+                columnRows[currentColumn] = columnRows[previousColumn];
+                currentColumn = previousColumn;
+            } while (currentColumn != 0);
+        }
+
+        for (int j = 1; j <= numberOfColumns; j++) {
+            int row = columnRows[j];
+            if (row == 0) {
+                continue;
+            }
+            int elevator = columnElevators[(j - 1) / slotsPerElevator];
+            if (estimatedSteps[row - 1][elevator] != Integer.MAX_VALUE) {
+                result[row - 1] = elevator;
+            }
+        }
+        return result;
+    }
+
+    private static long cost(int estimatedSteps, int slot, int slotPenalty) {
+        if (estimatedSteps == Integer.MAX_VALUE) {
+            return FORBIDDEN_COST;
+        }
+        return estimatedSteps + (long) slot * slotPenalty;
+    }
+}
@@ -0,0 +1,157 @@
+package com.system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// passengers' times in steps - wait (request created -> picked up), ride (picked up -> destination served)
+// and journey (request created -> destination served, one per destination floor)
+// kept in histograms of the whole building and of every floor and direction the request was made from, which are
+// created on first use, so memory does not depend on the number of requests
+// recorded by the thread performing steps, read from any thread
+public class PassengerStatistics {
+
+    // anything longer is counted in the last bucket of histograms
+    private static final long HIGHEST_TRACKED_STEPS = 1 << 20;
+
+    private final int numberOfFloors;
+    private final Histogram waitSteps;
+    private final Histogram rideSteps;
+    private final Histogram journeySteps;
+    // index: floor * 2 + direction
+    private final AtomicReferenceArray<Histogram> waitStepsByFloor;
+    private final AtomicReferenceArray<Histogram> rideStepsByFloor;
+    private final AtomicReferenceArray<Histogram> journeyStepsByFloor;
+    // picked up requests whose destinations are not served yet, by elevator
+    private final List<List<PickupRequest>> passengers;
+    private final AtomicLong lostPassengers;
+
+    PassengerStatistics(int numberOfElevators, int numberOfFloors) {
+        this.numberOfFloors = numberOfFloors;
+        this.waitSteps = new Histogram(HIGHEST_TRACKED_STEPS);
+        this.rideSteps = new Histogram(HIGHEST_TRACKED_STEPS);
+        this.journeySteps = new Histogram(HIGHEST_TRACKED_STEPS);
+        this.waitStepsByFloor = new AtomicReferenceArray<>((numberOfFloors + 1) * 2);
+        this.rideStepsByFloor = new AtomicReferenceArray<>((numberOfFloors + 1) * 2);
+        this.journeyStepsByFloor = new AtomicReferenceArray<>((numberOfFloors + 1) * 2);
+        this.passengers = new ArrayList<>();
+        for (int i = 0; i < numberOfElevators; i++) {
+            passengers.add(new ArrayList<>());
+        }
+        this.lostPassengers = new AtomicLong();
+    }
+
+    public Histogram getWaitSteps() {
+        return waitSteps;
+    }
+
+    public Histogram getRideSteps() {
+        return rideSteps;
+    }
+
+    public Histogram getJourneySteps() {
+        return journeySteps;
+    }
+
+    // empty histogram if no request has been made from given floor in given direction
+    public Histogram getWaitSteps(int floor, RequestDirection direction) {
+        return histogramOrEmpty(waitStepsByFloor, floor, direction);
+    }
+
+    public Histogram getRideSteps(int floor, RequestDirection direction) {
+        return histogramOrEmpty(rideStepsByFloor, floor, direction);
+    }
+
+    public Histogram getJourneySteps(int floor, RequestDirection direction) {
+        return histogramOrEmpty(journeyStepsByFloor, floor, direction);
+    }
+
+    // passengers whose elevator broke before they reached their destination
+    public long getLostPassengers() {
+        return lostPassengers.get();
+    }
+
+    // destinations equal to the pickup floor are served right away (the elevator is already there)
+    void recordPickup(int elevatorId, PickupRequest request) {
+        int wait = request.getPickedUpStep() - request.getCreatedStep();
+        waitSteps.record(wait);
+        recordByFloor(waitStepsByFloor, request, wait);
+        passengers.get(elevatorId).add(request);
+        recordDeliveries(elevatorId, request.getFloor(), request.getPickedUpStep());
+    }
+
+    void recordDeliveries(int elevatorId, int floor, int step) {
+        List<PickupRequest> elevatorPassengers = passengers.get(elevatorId);
+        for (int i = elevatorPassengers.size() - 1; i >= 0; i--) {
+            PickupRequest request = elevatorPassengers.get(i);
+            boolean allServed = true;
+            for (int j = 0; j < request.getDestinationFloors().size(); j++) {
+                if (request.getServedStep(j) != PickupRequest.NOT_SET) {
+                    continue;
+                }
+                if (request.getDestinationFloors().get(j) == floor) {
+                    request.setServedStep(j, step);
+                    recordRide(request, step);
+                } else {
+                    allServed = false;
+                }
+            }
+            if (allServed) {
+                elevatorPassengers.set(i, elevatorPassengers.get(elevatorPassengers.size() - 1));
+                elevatorPassengers.remove(elevatorPassengers.size() - 1);
+            }
+        }
+    }
+
+    // a broken elevator forgets its deliveries
+    void recordBrokenElevator(int elevatorId) {
+        List<PickupRequest> elevatorPassengers = passengers.get(elevatorId);
+        long lost = 0;
+        for (PickupRequest request : elevatorPassengers) {
+            for (int j = 0; j < request.getDestinationFloors().size(); j++) {
+                if (request.getServedStep(j) == PickupRequest.NOT_SET) {
+                    lost++;
+                }
+            }
+        }
+        lostPassengers.lazySet(lostPassengers.get() + lost);
+        elevatorPassengers.clear();
+    }
+
+    private void recordRide(PickupRequest request, int step) {
+        int ride = step - request.getPickedUpStep();
+        int journey = step - request.getCreatedStep();
+        rideSteps.record(ride);
+        journeySteps.record(journey);
+        recordByFloor(rideStepsByFloor, request, ride);
+        recordByFloor(journeyStepsByFloor, request, journey);
+    }
+
+    private void recordByFloor(AtomicReferenceArray<Histogram> histograms, PickupRequest request, long steps) {
+        int index = index(request.getFloor(), request.getDirection());
+        if (index < 0) {
+            return;
+        }
+        Histogram histogram = histograms.get(index);
+        if (histogram == null) {
+            histogram = new Histogram(HIGHEST_TRACKED_STEPS);
+            histograms.set(index, histogram);
+        }
+        histogram.record(steps);
+    }
+
+    private Histogram histogramOrEmpty(AtomicReferenceArray<Histogram> histograms, int floor, RequestDirection direction) {
+        int index = index(floor, direction);
+        Histogram histogram = index < 0 ? null : histograms.get(index);
+        return histogram == null ? new Histogram(0) : histogram;
+    }
+
+    // -1 for floors outside of the building
+    private int index(int floor, RequestDirection direction) {
+        if (floor < 0 || floor > numberOfFloors) {
+            return -1;
+        }
+        return floor * 2 + direction.ordinal();
+    }
+}
@@ -2,6 +2,7 @@ package com.system;
 
 import lombok.*;
 
+import java.util.Arrays;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -9,12 +10,36 @@ import java.util.List;
 @Getter
 @ToString
 class PickupRequest {
+    static final int NOT_SET = -1;
+
     @Setter
     private boolean requestDone = false;
     private final int floor;
     private final RequestDirection direction;
     private final int numberOfEnteringSteps;
     private final List<Integer> destinationFloors;
-}
+    // steps of the passengers' journey, used only for statistics (NOT_SET until they happen)
+    @Setter
+    @EqualsAndHashCode.Exclude
+    private int createdStep = NOT_SET;
+    @Setter
+    @EqualsAndHashCode.Exclude
+    private int pickedUpStep = NOT_SET;
+    // step in which each of destinationFloors was served
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private int[] servedSteps;
 
+    int getServedStep(int destinationIndex) {
+        return servedSteps == null ? NOT_SET : servedSteps[destinationIndex];
+    }
 
+    void setServedStep(int destinationIndex, int step) {
+        if (servedSteps == null) {
+            servedSteps = new int[destinationFloors.size()];
+            Arrays.fill(servedSteps, NOT_SET);
+        }
+        servedSteps[destinationIndex] = step;
+    }
+}
@@ -0,0 +1,117 @@
+package com.system;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// performs steps of the system at a fixed rate on its own thread (the only thread allowed to perform steps while it runs)
+// a step that starts after its scheduled time is late - with CATCH_UP policy the missed steps are performed one after another,
+// with SKIP policy the missed ticks are given up and the next step is scheduled at the next tick in the future
+public class RealTimeDriver implements AutoCloseable {
+
+    public enum OverrunPolicy {
+        CATCH_UP, // simulation time stays in sync with wall-clock time, steps may be performed in bursts
+        SKIP // steps are never performed in bursts, simulation time falls behind wall-clock time
+    }
+
+    private final ElevatorSystem system;
+    private final long tickPeriodNanos;
+    private final OverrunPolicy overrunPolicy;
+    private final Thread thread;
+    private final Histogram stepNanos;
+    private final Histogram latenessNanos;
+    private volatile boolean running;
+    // written only by the driver thread, read by getStats
+    private volatile long ticks;
+    private volatile long overruns;
+    private volatile long skippedTicks;
+    private volatile long lastStepNanos;
+    private volatile long totalStepNanos;
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    public RealTimeDriver(ElevatorSystem system, Duration tickPeriod, OverrunPolicy overrunPolicy) {
+        if (tickPeriod.isNegative() || tickPeriod.isZero()) {
+            throw new IllegalArgumentException("Tick period has to be positive.");
+        }
+        this.system = system;
+        this.tickPeriodNanos = tickPeriod.toNanos();
+        this.overrunPolicy = overrunPolicy;
+        this.thread = new Thread(this::run, "elevator-system-ticker");
+        this.thread.setDaemon(true);
+        this.stepNanos = new Histogram();
+        this.latenessNanos = new Histogram();
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    // stops ticking and waits until the current step is finished
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        stop();
+    }
+
+    public boolean isRunning() {
+        return running && thread.isAlive();
+    }
+
+    // read while the driver runs, the values may come from two consecutive steps
+    public TickStats getStats() {
+        return new TickStats(ticks, overruns, skippedTicks, lastStepNanos, totalStepNanos,
+                stepNanos.getValueAtPercentile(0.5), stepNanos.getValueAtPercentile(0.99), stepNanos.getMax(),
+                latenessNanos.getValueAtPercentile(0.5), latenessNanos.getValueAtPercentile(0.99), latenessNanos.getMax());
+    }
+
+    public Histogram getStepHistogram() {
+        return stepNanos;
+    }
+
+    public Histogram getLatenessHistogram() {
+        return latenessNanos;
+    }
+
+    private void run() {
+        long nextTick = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(nextTick - now);
+                continue;
+            }
+            try {
+                system.step();
+            } catch (RuntimeException e) {
+                logger.error("Step failed, real-time driver is stopped.", e);
+                running = false;
+                return;
+            }
+            long duration = System.nanoTime() - now;
+            stepNanos.record(duration);
+            latenessNanos.record(now - nextTick);
+            lastStepNanos = duration;
+            totalStepNanos += duration;
+            ticks++;
+            if (duration > tickPeriodNanos) {
+                overruns++;
+                logger.warn(LogMarkers.HOT_PATH, "Step {} took {} us, tick period is {} us.", system.getCurrentStep(), duration / 1000, tickPeriodNanos / 1000);
+            }
+            nextTick += tickPeriodNanos;
+            long behind = System.nanoTime() - nextTick;
+            if (overrunPolicy == OverrunPolicy.SKIP && behind > 0) {
+                long missedTicks = behind / tickPeriodNanos + 1;
+                skippedTicks += missedTicks;
+                nextTick += missedTicks * tickPeriodNanos;
+            }
+        }
+    }
+}
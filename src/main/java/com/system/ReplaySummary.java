@@ -0,0 +1,13 @@
+package com.system;
+
+import lombok.Value;
+
+// result of a trace replay
+@Value
+public class ReplaySummary {
+    int steps;
+    long requests;
+    long activities;
+    long elapsedNanos;
+    PassengerStatistics passengers;
+}
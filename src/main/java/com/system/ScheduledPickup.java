@@ -0,0 +1,10 @@
+package com.system;
+
+import lombok.Value;
+
+// pickup request together with the step it is created at
+@Value
+class ScheduledPickup {
+    int step;
+    PickupRequest request;
+}
@@ -0,0 +1,17 @@
+package com.system;
+
+import lombok.Getter;
+
+// step counter of a single elevator system - shared by the system and all of its elevators
+@Getter
+class SimulationClock {
+    private int currentStep = 0;
+
+    public void advance() {
+        currentStep++;
+    }
+
+    public void advance(int steps) {
+        currentStep += steps;
+    }
+}
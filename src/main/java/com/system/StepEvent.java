@@ -0,0 +1,47 @@
+package com.system;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// JFR event of a single ElevatorSystem.step() with durations of its phases (see StepPhase)
+@Name("com.system.Step")
+@Label("Elevator System Step")
+@Category("Elevator System")
+@Description("A single step of the simulation with durations of its phases")
+@StackTrace(false)
+class StepEvent extends jdk.jfr.Event {
+    @Label("Step")
+    int step;
+
+    @Label("Pending Requests")
+    @Description("Pickup requests not picked up yet at the end of the step")
+    int pendingRequests;
+
+    @Label("Request Intake")
+    @Timespan(Timespan.NANOSECONDS)
+    long requestIntake;
+
+    @Label("Dispatch")
+    @Timespan(Timespan.NANOSECONDS)
+    long dispatch;
+
+    @Label("Elevator Steps")
+    @Timespan(Timespan.NANOSECONDS)
+    long elevatorSteps;
+
+    @Label("Door Handling")
+    @Timespan(Timespan.NANOSECONDS)
+    long doorHandling;
+
+    @Label("Bookkeeping")
+    @Timespan(Timespan.NANOSECONDS)
+    long bookkeeping;
+
+    @Label("Publishing")
+    @Timespan(Timespan.NANOSECONDS)
+    long publishing;
+}
@@ -0,0 +1,11 @@
+package com.system;
+
+// consecutive parts of ElevatorSystem.step(), timed separately by StepProfiler
+public enum StepPhase {
+    REQUEST_INTAKE, // queued and scheduled pickup requests join the pending ones
+    DISPATCH, // estimated steps matrix and assignment of pickup requests
+    ELEVATOR_STEPS,
+    DOOR_HANDLING, // broken-door checks, closing and scheduling of door events
+    BOOKKEEPING, // deliveries of picked up passengers, removal of done deliveries and pickup requests
+    PUBLISHING // activities and snapshot
+}
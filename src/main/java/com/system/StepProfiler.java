@@ -0,0 +1,210 @@
+package com.system;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// latency histograms of steps and their phases, sizes of estimated steps matrices and number of estimator calls
+// disabled by default - then a step only checks a plain field per phase; can be switched on and off at any time
+// from any thread (takes effect from the next step), recorded by the stepping thread, read from any thread
+// phases are also timed (without being recorded) when the step is traced by a JFR event
+public class StepProfiler implements StepProfilerMXBean {
+
+    private static final double[] REPORTED_PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] REPORTED_PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private final Histogram stepNanos;
+    private final Histogram[] phaseNanos;
+    private final Histogram matrixCells;
+    private final AtomicLong estimatorCalls;
+    private volatile boolean enabled;
+    // enabled at the start of the current step - the step is profiled as a whole or not at all
+    private boolean profilingStep;
+    private boolean timingStep;
+    private long stepStart;
+    private long phaseStart;
+    // durations of phases of the last timed step
+    private final long[] lastPhaseNanos;
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    public StepProfiler() {
+        this.stepNanos = new Histogram();
+        this.phaseNanos = new Histogram[StepPhase.values().length];
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new Histogram();
+        }
+        this.matrixCells = new Histogram();
+        this.estimatorCalls = new AtomicLong();
+        this.enabled = false;
+        this.lastPhaseNanos = new long[StepPhase.values().length];
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // traced - phases of the step have to be timed even if the profiler is disabled
+    void startStep(boolean traced) {
+        profilingStep = enabled;
+        timingStep = profilingStep || traced;
+        if (timingStep) {
+            stepStart = System.nanoTime();
+            phaseStart = stepStart;
+        }
+    }
+
+    // ends given phase and starts the next one
+    void endPhase(StepPhase phase) {
+        if (timingStep) {
+            long now = System.nanoTime();
+            lastPhaseNanos[phase.ordinal()] = now - phaseStart;
+            if (profilingStep) {
+                phaseNanos[phase.ordinal()].record(now - phaseStart);
+            }
+            phaseStart = now;
+        }
+    }
+
+    void endStep() {
+        if (profilingStep) {
+            stepNanos.record(System.nanoTime() - stepStart);
+        }
+        profilingStep = false;
+        timingStep = false;
+    }
+
+    // duration of given phase in the last timed step (only for the stepping thread)
+    long getLastPhaseNanos(StepPhase phase) {
+        return lastPhaseNanos[phase.ordinal()];
+    }
+
+    void recordMatrix(int rows, int columns) {
+        if (profilingStep) {
+            matrixCells.record((long) rows * columns);
+        }
+    }
+
+    void recordEstimatorCalls(long calls) {
+        if (profilingStep) {
+            estimatorCalls.lazySet(estimatorCalls.get() + calls);
+        }
+    }
+
+    public Histogram getStepHistogram() {
+        return stepNanos;
+    }
+
+    public Histogram getPhaseHistogram(StepPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public Histogram getMatrixCellsHistogram() {
+        return matrixCells;
+    }
+
+    @Override
+    public long getNumberOfSteps() {
+        return stepNanos.getCount();
+    }
+
+    @Override
+    public double getMeanStepNanos() {
+        return stepNanos.getMean();
+    }
+
+    @Override
+    public long getMedianStepNanos() {
+        return stepNanos.getValueAtPercentile(0.5);
+    }
+
+    @Override
+    public long getP99StepNanos() {
+        return stepNanos.getValueAtPercentile(0.99);
+    }
+
+    @Override
+    public long getMaxStepNanos() {
+        return stepNanos.getMax();
+    }
+
+    @Override
+    public Map<String, Long> getP99PhaseNanos() {
+        Map<String, Long> res = new LinkedHashMap<>();
+        for (StepPhase phase : StepPhase.values()) {
+            res.put(phase.name(), getPhaseHistogram(phase).getValueAtPercentile(0.99));
+        }
+        return res;
+    }
+
+    @Override
+    public long getEstimatorCalls() {
+        return estimatorCalls.get();
+    }
+
+    @Override
+    public long getP99MatrixCells() {
+        return matrixCells.getValueAtPercentile(0.99);
+    }
+
+    // flat registry of metrics, e.g. step.count, step.p99, phase.dispatch.max, dispatch.matrixCells.p50, dispatch.estimatorCalls
+    @Override
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> res = new LinkedHashMap<>();
+        putHistogram(res, "step", stepNanos);
+        for (StepPhase phase : StepPhase.values()) {
+            putHistogram(res, "phase." + phase.name().toLowerCase(), getPhaseHistogram(phase));
+        }
+        putHistogram(res, "dispatch.matrixCells", matrixCells);
+        res.put("dispatch.estimatorCalls", estimatorCalls.get());
+        return res;
+    }
+
+    private static void putHistogram(Map<String, Long> metrics, String name, Histogram histogram) {
+        metrics.put(name + ".count", histogram.getCount());
+        metrics.put(name + ".mean", Math.round(histogram.getMean()));
+        for (int i = 0; i < REPORTED_PERCENTILES.length; i++) {
+            metrics.put(name + "." + REPORTED_PERCENTILE_NAMES[i], histogram.getValueAtPercentile(REPORTED_PERCENTILES[i]));
+        }
+        metrics.put(name + ".max", histogram.getMax());
+    }
+
+    // called while steps are performed, values of the current step may partially survive the reset
+    @Override
+    public void reset() {
+        stepNanos.reset();
+        for (Histogram histogram : phaseNanos) {
+            histogram.reset();
+        }
+        matrixCells.reset();
+        estimatorCalls.set(0);
+    }
+
+    // registers the profiler in the platform MBean server, e.g. under "com.system:type=StepProfiler,name=main"
+    public void registerMBean(String objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(objectName));
+        } catch (JMException e) {
+            logger.error("Step profiler could not be registered as {}: {}", objectName, e.getMessage());
+        }
+    }
+
+    public void unregisterMBean(String objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(objectName));
+        } catch (JMException e) {
+            logger.error("Step profiler could not be unregistered from {}: {}", objectName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.system;
+
+import java.util.Map;
+
+// JMX view of a StepProfiler (times in nanoseconds)
+public interface StepProfilerMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getNumberOfSteps();
+
+    double getMeanStepNanos();
+
+    long getMedianStepNanos();
+
+    long getP99StepNanos();
+
+    long getMaxStepNanos();
+
+    // 99th percentile of every phase
+    Map<String, Long> getP99PhaseNanos();
+
+    long getEstimatorCalls();
+
+    long getP99MatrixCells();
+
+    // all the metrics above (and more percentiles) by their names
+    Map<String, Long> getMetrics();
+
+    void reset();
+}
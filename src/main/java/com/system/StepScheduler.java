@@ -0,0 +1,44 @@
+package com.system;
+
+import java.util.PriorityQueue;
+
+// deadline queue of events keyed by the step they are due at - only due events are touched in a step
+// events due at the same step are returned in the order they were scheduled
+class StepScheduler<T> {
+
+    static final int NO_EVENTS = Integer.MAX_VALUE;
+
+    private final PriorityQueue<ScheduledEvent<T>> queue = new PriorityQueue<>();
+    private long nextSequence = 0;
+
+    void schedule(int step, T event) {
+        queue.add(new ScheduledEvent<>(step, nextSequence++, event));
+    }
+
+    // returns next event due at given step (or earlier), null if there is none
+    T pollDue(int step) {
+        ScheduledEvent<T> first = queue.peek();
+        if (first == null || first.step() > step) {
+            return null;
+        }
+        return queue.poll().event();
+    }
+
+    // returns NO_EVENTS when nothing is scheduled
+    int nextStep() {
+        ScheduledEvent<T> first = queue.peek();
+        return first == null ? NO_EVENTS : first.step();
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    private record ScheduledEvent<T>(int step, long sequence, T event) implements Comparable<ScheduledEvent<T>> {
+        @Override
+        public int compareTo(ScheduledEvent<T> other) {
+            int res = Integer.compare(step, other.step);
+            return res != 0 ? res : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.system;
+
+import lombok.Value;
+
+// statistics of a RealTimeDriver, all times in nanoseconds
+@Value
+public class TickStats {
+    long ticks; // performed steps
+    long overruns; // steps that took longer than the tick period
+    long skippedTicks; // ticks given up by SKIP policy
+    long lastStepNanos;
+    long totalStepNanos;
+    long p50StepNanos; // percentiles are rounded up to histogram buckets (at most ~6%)
+    long p99StepNanos;
+    long maxStepNanos;
+    long p50LatenessNanos; // lateness - delay of a step start after its scheduled time
+    long p99LatenessNanos;
+    long maxLatenessNanos;
+
+    public double getAverageStepNanos() {
+        return ticks == 0 ? 0 : (double) totalStepNanos / ticks;
+    }
+}
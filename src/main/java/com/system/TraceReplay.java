@@ -0,0 +1,139 @@
+package com.system;
+
+import com.system.activities.ActivityCodec;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// replays a JSONL trace without any interaction, the trace is read line by line (never loaded as a whole)
+// first line - building: {"elevators":2,"floors":10,"criticalSteps":9,"estimatedEnteringSteps":3,"estimatedLeavingSteps":3,
+//                         "realLeavingSteps":2,"startingFloors":[0,10]}
+//              optional: "dispatchMode" (INCREMENTAL by default), "assignmentEngine" (GREEDY by default),
+//                        "endStep" (by default the replay ends when all requests are handled)
+// next lines - pickup requests ordered by step: {"step":12,"floor":3,"direction":"UP","enteringSteps":2,"destinationFloors":[6,8]}
+// every activity is written to the output as a JSONL line: {"step":13,"elevator":0,"type":"MOVE","state":"UP","values":[2,3]}
+class TraceReplay {
+
+    // a replay without endStep gives up after this many steps following the last request
+    static final int MAX_STEPS_AFTER_LAST_REQUEST = 1_000_000;
+
+    private final BufferedReader trace;
+    private final Writer output;
+    private long requests;
+    private long activities;
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    // output - null if activities should not be written
+    TraceReplay(BufferedReader trace, Writer output) {
+        this.trace = trace;
+        this.output = output;
+    }
+
+    ReplaySummary run() throws IOException {
+        long start = System.nanoTime();
+        String header = trace.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("Trace is empty - the first line has to describe the building.");
+        }
+        Map<String, Object> building = JsonLineParser.parseObject(header);
+        ElevatorSystem system = createSystem(building);
+        system.setActivityRetention(ActivityRetention.lastSteps(1), null);
+        if (output != null) {
+            system.addActivityLogListener(this::writeActivity);
+        }
+
+        String line;
+        int lineNumber = 1;
+        while ((line = trace.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Map<String, Object> pickup;
+            try {
+                pickup = JsonLineParser.parseObject(line);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+            int step = JsonLineParser.getInt(pickup, "step");
+            if (step <= system.getCurrentStep()) {
+                logger.warn("Line {}: request of step {} is late, it is created in step {}.", lineNumber, step, system.getCurrentStep() + 1);
+            } else if (step > system.getCurrentStep() + 1) {
+                system.advanceTo(step - 1);
+            }
+            system.schedulePickup(step, parsePickupRequest(pickup));
+            requests++;
+        }
+
+        int endStep = JsonLineParser.getInt(building, "endStep", -1);
+        if (endStep >= 0) {
+            system.advanceTo(endStep);
+        } else {
+            runUntilAllRequestsHandled(system);
+        }
+        if (output != null) {
+            output.flush();
+        }
+        return new ReplaySummary(system.getCurrentStep(), requests, activities, System.nanoTime() - start, system.getPassengerStatistics());
+    }
+
+    static ElevatorSystem createSystem(Map<String, Object> building) {
+        int numberOfElevators = JsonLineParser.getInt(building, "elevators");
+        int[] startingFloors = JsonLineParser.getIntList(building, "startingFloors").stream().mapToInt(x -> x).toArray();
+        if (startingFloors.length != numberOfElevators) {
+            throw new IllegalArgumentException("Number of starting floors has to be equal to the number of elevators.");
+        }
+        ElevatorSystem system = new ElevatorSystem(numberOfElevators, JsonLineParser.getInt(building, "floors"),
+                JsonLineParser.getInt(building, "criticalSteps"), JsonLineParser.getInt(building, "estimatedEnteringSteps"),
+                JsonLineParser.getInt(building, "estimatedLeavingSteps"), JsonLineParser.getInt(building, "realLeavingSteps"), startingFloors);
+        system.setDispatchMode(DispatchMode.valueOf(JsonLineParser.getString(building, "dispatchMode", DispatchMode.INCREMENTAL.name())));
+        system.setAssignmentEngine(AssignmentEngine.valueOf(JsonLineParser.getString(building, "assignmentEngine", AssignmentEngine.GREEDY.name())));
+        return system;
+    }
+
+    static PickupRequest parsePickupRequest(Map<String, Object> pickup) {
+        return new PickupRequest(JsonLineParser.getInt(pickup, "floor"),
+                RequestDirection.valueOf(JsonLineParser.getString(pickup, "direction", null)),
+                JsonLineParser.getInt(pickup, "enteringSteps"), JsonLineParser.getIntList(pickup, "destinationFloors"));
+    }
+
+    private void runUntilAllRequestsHandled(ElevatorSystem system) {
+        int lastStep = system.getCurrentStep() + MAX_STEPS_AFTER_LAST_REQUEST;
+        do {
+            if (system.getCurrentStep() >= lastStep) {
+                logger.error("Requests were not handled {} steps after the last one - replay is stopped.", MAX_STEPS_AFTER_LAST_REQUEST);
+                return;
+            }
+            system.step();
+        } while (!isIdle(system.getSnapshot()));
+    }
+
+    private static boolean isIdle(ElevatorSystemSnapshot snapshot) {
+        if (snapshot.getNumberOfPendingRequests() > 0) {
+            return false;
+        }
+        // a broken elevator is not waited for, its door may never be closed
+        for (ElevatorSnapshot elevator : snapshot.getElevators()) {
+            if (!elevator.isBroken() && (elevator.getState() != ElevatorState.IDLE || !elevator.isDoorClosed() || elevator.getNumberOfDeliveries() > 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeActivity(int elevatorId, long header, long values) {
+        try {
+            output.write("{\"step\":" + ActivityCodec.step(header) + ",\"elevator\":" + elevatorId
+                    + ",\"type\":\"" + ActivityCodec.type(header) + "\",\"state\":\"" + ActivityCodec.state(header)
+                    + "\",\"values\":[" + ActivityCodec.firstValue(values) + "," + ActivityCodec.secondValue(values) + "]}\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write activity.", e);
+        }
+        activities++;
+    }
+}
@@ -0,0 +1,43 @@
+package com.system;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// writes traces in the format read by TraceReplay
+class TraceWriter {
+
+    private final Writer output;
+
+    TraceWriter(Writer output) {
+        this.output = output;
+    }
+
+    void writeBuilding(int numberOfElevators, int numberOfFloors, int criticalStepsSinceElevatorDoorOpened, int estimatedEnteringSteps,
+                       int estimatedLeavingSteps, int realLeavingSteps, int[] elevatorStartingFloors) throws IOException {
+        output.write("{\"elevators\":" + numberOfElevators + ",\"floors\":" + numberOfFloors
+                + ",\"criticalSteps\":" + criticalStepsSinceElevatorDoorOpened + ",\"estimatedEnteringSteps\":" + estimatedEnteringSteps
+                + ",\"estimatedLeavingSteps\":" + estimatedLeavingSteps + ",\"realLeavingSteps\":" + realLeavingSteps
+                + ",\"startingFloors\":[" + IntStream.of(elevatorStartingFloors).mapToObj(Integer::toString).collect(Collectors.joining(",")) + "]}\n");
+    }
+
+    void writePickup(ScheduledPickup pickup) throws IOException {
+        PickupRequest request = pickup.getRequest();
+        output.write("{\"step\":" + pickup.getStep() + ",\"floor\":" + request.getFloor() + ",\"direction\":\"" + request.getDirection()
+                + "\",\"enteringSteps\":" + request.getNumberOfEnteringSteps() + ",\"destinationFloors\":["
+                + request.getDestinationFloors().stream().map(Object::toString).collect(Collectors.joining(",")) + "]}\n");
+    }
+
+    // returns the number of written requests
+    long writePickups(Iterator<ScheduledPickup> pickups) throws IOException {
+        long res = 0;
+        while (pickups.hasNext()) {
+            writePickup(pickups.next());
+            res++;
+        }
+        output.flush();
+        return res;
+    }
+}
@@ -0,0 +1,204 @@
+package com.system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+// seeded, deterministic generator of pickup requests - the same seed and settings always give the same requests
+// arrivals at each floor are Poisson processes, generated as their superposition: the number of arrivals in a step
+// is Poisson(arrivalsPerStep) and every arrival picks its kind of trip (see TrafficProfile) and floors by weights
+// requests are generated lazily, so any number of them can be streamed without holding them in memory
+// package-private like the requests it generates (PickupRequest, ScheduledPickup)
+class TrafficGenerator {
+
+    // Poisson variates of bigger means are generated as sums of variates of at most this mean
+    private static final double MAX_POISSON_CHUNK = 30.0;
+    // attempts to draw a destination in the direction of the request before giving up on a group member
+    private static final int MAX_DESTINATION_ATTEMPTS = 16;
+
+    private final long seed;
+    private final int numberOfFloors;
+    private final TrafficProfile profile;
+    private final double arrivalsPerStep;
+    // weights of floors 1..numberOfFloors for trips that do not start or end in the lobby (uniform by default)
+    private double[] cumulativeFloorWeights;
+    private int maxGroupSize;
+    private int enteringStepsPerPassenger;
+
+    TrafficGenerator(long seed, int numberOfFloors, TrafficProfile profile, double arrivalsPerStep) {
+        if (numberOfFloors < 2) {
+            throw new IllegalArgumentException("Traffic needs at least 3 floors (0, 1 and 2).");
+        }
+        if (!(arrivalsPerStep > 0) || Double.isInfinite(arrivalsPerStep)) {
+            throw new IllegalArgumentException("Arrivals per step have to be a positive number.");
+        }
+        this.seed = seed;
+        this.numberOfFloors = numberOfFloors;
+        this.profile = profile;
+        this.arrivalsPerStep = arrivalsPerStep;
+        this.maxGroupSize = 1;
+        this.enteringStepsPerPassenger = 1;
+        double[] uniform = new double[numberOfFloors];
+        Arrays.fill(uniform, 1.0);
+        setFloorWeights(uniform);
+    }
+
+    // number of passengers of a request is drawn uniformly from 1..maxGroupSize
+    void setMaxGroupSize(int maxGroupSize) {
+        if (maxGroupSize < 1) {
+            throw new IllegalArgumentException("Maximum group size has to be at least 1.");
+        }
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    void setEnteringStepsPerPassenger(int enteringStepsPerPassenger) {
+        if (enteringStepsPerPassenger < 0) {
+            throw new IllegalArgumentException("Entering steps per passenger cannot be negative.");
+        }
+        this.enteringStepsPerPassenger = enteringStepsPerPassenger;
+    }
+
+    // weights[i] - relative popularity of floor i + 1
+    void setFloorWeights(double[] weights) {
+        if (weights.length != numberOfFloors) {
+            throw new IllegalArgumentException("Weights of all floors above the lobby (" + numberOfFloors + ") are required.");
+        }
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Floor weights cannot be negative.");
+            }
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("At least one floor needs a positive weight.");
+        }
+        this.cumulativeFloorWeights = cumulative;
+    }
+
+    // numberOfRequests requests created from step fromStep on, ordered by step
+    Iterator<ScheduledPickup> requests(int fromStep, long numberOfRequests) {
+        return new RequestIterator(fromStep, numberOfRequests);
+    }
+
+    private class RequestIterator implements Iterator<ScheduledPickup> {
+        private final SplittableRandom random;
+        private final long numberOfRequests;
+        private long generated;
+        private int step;
+        private int remainingInStep;
+
+        RequestIterator(int fromStep, long numberOfRequests) {
+            this.random = new SplittableRandom(seed);
+            this.numberOfRequests = numberOfRequests;
+            this.generated = 0;
+            this.step = fromStep - 1;
+            this.remainingInStep = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return generated < numberOfRequests;
+        }
+
+        @Override
+        public ScheduledPickup next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (remainingInStep == 0) {
+                step++;
+                remainingInStep = poisson(random, arrivalsPerStep);
+            }
+            remainingInStep--;
+            generated++;
+            return new ScheduledPickup(step, createRequest(random));
+        }
+    }
+
+    private PickupRequest createRequest(SplittableRandom random) {
+        double trip = random.nextDouble();
+        int groupSize = 1 + random.nextInt(maxGroupSize);
+        List<Integer> destinations = new ArrayList<>(groupSize);
+        int floor;
+        RequestDirection direction;
+        if (trip < profile.getUpFromLobbyShare()) {
+            floor = 0;
+            direction = RequestDirection.UP;
+            for (int i = 0; i < groupSize; i++) {
+                destinations.add(randomFloor(random));
+            }
+        } else if (trip < profile.getUpFromLobbyShare() + profile.getDownToLobbyShare()) {
+            floor = randomFloor(random);
+            direction = RequestDirection.DOWN;
+            for (int i = 0; i < groupSize; i++) {
+                destinations.add(0);
+            }
+        } else {
+            floor = randomFloor(random);
+            int destination = randomFloorOtherThan(random, floor);
+            direction = destination > floor ? RequestDirection.UP : RequestDirection.DOWN;
+            destinations.add(destination);
+            for (int i = 1; i < groupSize; i++) {
+                for (int attempt = 0; attempt < MAX_DESTINATION_ATTEMPTS; attempt++) {
+                    int candidate = randomFloorOtherThan(random, floor);
+                    if ((candidate > floor) == (direction == RequestDirection.UP)) {
+                        destinations.add(candidate);
+                        break;
+                    }
+                }
+            }
+        }
+        return new PickupRequest(floor, direction, Math.max(1, destinations.size() * enteringStepsPerPassenger), destinations);
+    }
+
+    // floor above the lobby, chosen by floor weights
+    private int randomFloor(SplittableRandom random) {
+        double value = random.nextDouble() * cumulativeFloorWeights[cumulativeFloorWeights.length - 1];
+        // the first floor whose cumulative weight is above the value
+        int low = 0;
+        int high = cumulativeFloorWeights.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeFloorWeights[middle] > value) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low + 1;
+    }
+
+    private int randomFloorOtherThan(SplittableRandom random, int floor) {
+        int res = randomFloor(random);
+        for (int attempt = 0; res == floor && attempt < MAX_DESTINATION_ATTEMPTS; attempt++) {
+            res = randomFloor(random);
+        }
+        if (res == floor) {
+            // a building where (almost) only one floor is popular - the other floor is taken by position
+            res = floor == numberOfFloors ? floor - 1 : floor + 1;
+        }
+        return res;
+    }
+
+    static int poisson(SplittableRandom random, double mean) {
+        int res = 0;
+        double remaining = mean;
+        while (remaining > 0) {
+            double chunk = Math.min(remaining, MAX_POISSON_CHUNK);
+            remaining -= chunk;
+            double limit = Math.exp(-chunk);
+            double product = random.nextDouble();
+            while (product > limit) {
+                res++;
+                product *= random.nextDouble();
+            }
+        }
+        return res;
+    }
+}
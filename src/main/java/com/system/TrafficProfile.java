@@ -0,0 +1,21 @@
+package com.system;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+// mixture of three kinds of trips - up from the lobby (floor 0), down to the lobby and between two other floors
+@Getter(AccessLevel.PACKAGE)
+public enum TrafficProfile {
+    UP_PEAK(0.9, 0.05), // morning - people arrive at the building
+    DOWN_PEAK(0.05, 0.9), // evening - people leave the building
+    LUNCH(0.4, 0.4), // both directions, some trips between floors
+    INTER_FLOOR(0.0, 0.0); // trips between floors only
+
+    private final double upFromLobbyShare;
+    private final double downToLobbyShare;
+
+    TrafficProfile(double upFromLobbyShare, double downToLobbyShare) {
+        this.upFromLobbyShare = upFromLobbyShare;
+        this.downToLobbyShare = downToLobbyShare;
+    }
+}
@@ -0,0 +1,57 @@
+package com.system.activities;
+
+import com.system.ElevatorState;
+
+// packs an activity into two longs
+// header: step (32 bits) | type ordinal (16 bits) | state ordinal (16 bits)
+// values: first value (32 bits) | second value (32 bits) - meaning of the values depends on the type
+public final class ActivityCodec {
+
+    private static final ActivityType[] TYPES = ActivityType.values();
+    private static final ElevatorState[] STATES = ElevatorState.values();
+
+    private ActivityCodec() {
+    }
+
+    public static long header(int step, ActivityType type, ElevatorState state) {
+        return ((long) step << 32) | ((long) type.ordinal() << 16) | state.ordinal();
+    }
+
+    public static long values(int firstValue, int secondValue) {
+        return ((long) firstValue << 32) | (secondValue & 0xFFFFFFFFL);
+    }
+
+    public static int step(long header) {
+        return (int) (header >> 32);
+    }
+
+    public static ActivityType type(long header) {
+        return TYPES[(int) (header >>> 16) & 0xFFFF];
+    }
+
+    public static ElevatorState state(long header) {
+        return STATES[(int) header & 0xFFFF];
+    }
+
+    public static int firstValue(long values) {
+        return (int) (values >> 32);
+    }
+
+    public static int secondValue(long values) {
+        return (int) values;
+    }
+
+    // creates a typed activity back from its packed form
+    public static ElevatorActivity decode(long header, long values) {
+        int step = step(header);
+        ElevatorState state = state(header);
+        return switch (type(header)) {
+            case MOVE -> new MoveActivity(step, state, firstValue(values), secondValue(values));
+            case DOOR_OPENED -> new DoorOpenedActivity(step, state, firstValue(values));
+            case DOOR_CLOSED -> new DoorClosedActivity(step, state, firstValue(values), secondValue(values));
+            case ADD_PICKUP_REQUEST -> new AddPickupRequestActivity(step, state, firstValue(values));
+            case CLEAR_PICKUP_REQUESTS -> new ClearPickupRequestsActivity(step, state);
+            case ELEVATOR_BROKEN -> new ElevatorBrokenActivity(step, state);
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.system.activities;
+
+// type of elevator activity, stored in packed activities (see ActivityCodec)
+public enum ActivityType {
+    MOVE, // previous floor, new floor
+    DOOR_OPENED, // current floor
+    DOOR_CLOSED, // current floor, steps waited
+    ADD_PICKUP_REQUEST, // pickup floor
+    CLEAR_PICKUP_REQUESTS, // no values
+    ELEVATOR_BROKEN // no values
+}
@@ -1,14 +1,13 @@
 package com.system.activities;
 
 import com.system.ElevatorState;
-import com.system.ElevatorSystem;
 import lombok.ToString;
 
 @ToString
 public class ClearPickupRequestsActivity extends ElevatorActivity {
 
-    public ClearPickupRequestsActivity(ElevatorState state) {
-        super(ElevatorSystem.getCurrentStep(), state);
+    public ClearPickupRequestsActivity(int step, ElevatorState state) {
+        super(step, state);
     }
 
 }
@@ -1,7 +1,6 @@
 package com.system.activities;
 
 import com.system.ElevatorState;
-import com.system.ElevatorSystem;
 import lombok.Getter;
 import lombok.ToString;
 
@@ -11,8 +10,8 @@ public class DoorClosedActivity extends ElevatorActivity {
     int currentFloor;
     int stepsWaited;
 
-    public DoorClosedActivity(ElevatorState state, int currentFloor, int stepsWaited) {
-        super(ElevatorSystem.getCurrentStep(), state);
+    public DoorClosedActivity(int step, ElevatorState state, int currentFloor, int stepsWaited) {
+        super(step, state);
         this.currentFloor = currentFloor;
         this.stepsWaited = stepsWaited;
     }
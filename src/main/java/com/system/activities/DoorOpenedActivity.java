@@ -1,7 +1,6 @@
 package com.system.activities;
 
 import com.system.ElevatorState;
-import com.system.ElevatorSystem;
 import lombok.Getter;
 import lombok.ToString;
 
@@ -10,8 +9,8 @@ import lombok.ToString;
 public class DoorOpenedActivity extends ElevatorActivity {
     int currentFloor;
 
-    public DoorOpenedActivity(ElevatorState state, int currentFloor) {
-        super(ElevatorSystem.getCurrentStep(), state);
+    public DoorOpenedActivity(int step, ElevatorState state, int currentFloor) {
+        super(step, state);
         this.currentFloor = currentFloor;
     }
 }
@@ -1,14 +1,13 @@
 package com.system.activities;
 
 import com.system.ElevatorState;
-import com.system.ElevatorSystem;
 import lombok.ToString;
 
 @ToString
 public class ElevatorBrokenActivity extends ElevatorActivity {
 
-    public ElevatorBrokenActivity(ElevatorState state) {
-        super(ElevatorSystem.getCurrentStep(), state);
+    public ElevatorBrokenActivity(int step, ElevatorState state) {
+        super(step, state);
     }
 
 }
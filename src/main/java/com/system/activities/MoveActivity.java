@@ -1,7 +1,6 @@
 package com.system.activities;
 
 import com.system.ElevatorState;
-import com.system.ElevatorSystem;
 import lombok.ToString;
 
 @ToString
@@ -9,8 +8,8 @@ public class MoveActivity extends ElevatorActivity {
     int previousFloor;
     int newFloor;
 
-    public MoveActivity(ElevatorState state, int previousFloor, int newFloor) {
-        super(ElevatorSystem.getCurrentStep(), state);
+    public MoveActivity(int step, ElevatorState state, int previousFloor, int newFloor) {
+        super(step, state);
         this.previousFloor = previousFloor;
         this.newFloor = newFloor;
     }
@@ -0,0 +1,45 @@
+package com.system;
+
+import com.system.activities.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ActivityCodecTest {
+
+    @Test
+    void decode_everyActivityType_sameActivityAsEncoded() {
+        // given
+        List<ElevatorActivity> activities = List.of(
+                new MoveActivity(1_000_000, ElevatorState.DOWN, 7, 6),
+                new DoorOpenedActivity(3, ElevatorState.UP, 120),
+                new DoorClosedActivity(4, ElevatorState.IDLE, 120, 9),
+                new AddPickupRequestActivity(0, ElevatorState.IDLE, 2),
+                new ClearPickupRequestsActivity(Integer.MAX_VALUE, ElevatorState.UP),
+                new ElevatorBrokenActivity(5, ElevatorState.IDLE));
+
+        for (ElevatorActivity activity : activities) {
+            // when
+            ElevatorActivity decoded = ActivityCodec.decode(ActivityEncoder.header(activity), ActivityEncoder.values(activity));
+
+            // then
+            assertEquals(activity.getClass(), decoded.getClass());
+            assertEquals(activity.toString(), decoded.toString());
+            assertEquals(activity.getStep(), decoded.getStep());
+            assertEquals(activity.getState(), decoded.getState());
+        }
+    }
+
+    @Test
+    void header_unknownActivityType_throwsIllegalArgumentException() {
+        // given
+        ElevatorActivity activity = new ElevatorActivity(1, ElevatorState.UP) {
+        };
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> ActivityEncoder.header(activity));
+        assertThrows(IllegalArgumentException.class, () -> ActivityEncoder.values(activity));
+    }
+}
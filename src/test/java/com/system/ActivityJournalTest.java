@@ -0,0 +1,164 @@
+package com.system;
+
+import com.system.activities.ActivityCodec;
+import com.system.activities.ActivityType;
+import com.system.activities.ElevatorActivity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ActivityJournalTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("activity-journal");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void read_journalWithManySmallSegments_sameActivitiesAsElevatorLogs() throws IOException {
+        // given
+        ElevatorSystem system = new ElevatorSystem(2, 10, 9, 3, 3, 2, new int[] {0, 10});
+        ActivityJournal journal = new ActivityJournal(directory, ActivityJournal.HEADER_SIZE + 5 * ActivityJournal.RECORD_SIZE);
+        system.addActivityLogListener(journal);
+        system.pickup(new PickupRequest(3, RequestDirection.UP, 2, List.of(6)));
+        system.pickup(new PickupRequest(7, RequestDirection.DOWN, 4, List.of(0, 2)));
+
+        // when
+        for (int i = 0; i < 25; i++) {
+            system.step();
+        }
+        journal.close();
+        ActivityJournalReader reader = new ActivityJournalReader(directory);
+
+        // then
+        assertTrue(reader.getNumberOfSegments() > 1);
+        for (int i = 0; i < 2; i++) {
+            List<ElevatorActivity> expected = new ArrayList<>();
+            system.status()[i].getActivityLogsMap().values().forEach(expected::addAll);
+            assertEquals(expected.toString(), reader.readElevatorActivities(i, 0, Integer.MAX_VALUE).toString());
+        }
+    }
+
+    @Test
+    void constructor_directoryWithSegmentsOfPreviousRun_continuesAfterLastSegment() throws IOException {
+        // given
+        ElevatorSystem firstRun = new ElevatorSystem(1, 10, 9, 3, 3, 2, new int[] {0});
+        ActivityJournal firstJournal = new ActivityJournal(directory, ActivityJournal.HEADER_SIZE + 5 * ActivityJournal.RECORD_SIZE);
+        firstRun.addActivityLogListener(firstJournal);
+        firstRun.pickup(new PickupRequest(9, RequestDirection.DOWN, 2, List.of(0)));
+        for (int i = 0; i < 15; i++) {
+            firstRun.step();
+        }
+        firstJournal.close();
+        int segmentsOfFirstRun = new ActivityJournalReader(directory).getNumberOfSegments();
+
+        // when
+        ElevatorSystem secondRun = new ElevatorSystem(1, 10, 9, 3, 3, 2, new int[] {0});
+        ActivityJournal secondJournal = new ActivityJournal(directory, ActivityJournal.HEADER_SIZE + 5 * ActivityJournal.RECORD_SIZE);
+        secondRun.addActivityLogListener(secondJournal);
+        secondRun.pickup(new PickupRequest(5, RequestDirection.UP, 2, List.of(8)));
+        for (int i = 0; i < 15; i++) {
+            secondRun.step();
+        }
+        secondJournal.close();
+        ActivityJournalReader reader = new ActivityJournalReader(directory);
+
+        // then
+        assertTrue(segmentsOfFirstRun > 1);
+        assertTrue(reader.getNumberOfSegments() > segmentsOfFirstRun);
+        List<ElevatorActivity> expected = new ArrayList<>();
+        firstRun.status()[0].getActivityLogsMap().values().forEach(expected::addAll);
+        secondRun.status()[0].getActivityLogsMap().values().forEach(expected::addAll);
+        assertEquals(expected.toString(), reader.readElevatorActivities(0, 0, Integer.MAX_VALUE).toString());
+    }
+
+    @Test
+    void read_segmentNumbersAbove99999_segmentsReadInNumberOrder() throws IOException {
+        // given
+        ElevatorSystem firstRun = new ElevatorSystem(1, 10, 9, 3, 3, 2, new int[] {0});
+        ActivityJournal firstJournal = new ActivityJournal(directory, 4096);
+        firstRun.addActivityLogListener(firstJournal);
+        firstRun.pickup(new PickupRequest(9, RequestDirection.DOWN, 2, List.of(0)));
+        for (int i = 0; i < 15; i++) {
+            firstRun.step();
+        }
+        firstJournal.close();
+        Files.move(ActivityJournal.segmentPath(directory, 0), ActivityJournal.segmentPath(directory, 99_999));
+
+        // when
+        ElevatorSystem secondRun = new ElevatorSystem(1, 10, 9, 3, 3, 2, new int[] {0});
+        ActivityJournal secondJournal = new ActivityJournal(directory, 4096);
+        secondRun.addActivityLogListener(secondJournal);
+        secondRun.pickup(new PickupRequest(5, RequestDirection.UP, 2, List.of(8)));
+        for (int i = 0; i < 15; i++) {
+            secondRun.step();
+        }
+        secondJournal.close();
+        ActivityJournalReader reader = new ActivityJournalReader(directory);
+
+        // then
+        assertTrue(Files.exists(directory.resolve("journal-100000.bin")));
+        assertEquals(2, reader.getNumberOfSegments());
+        List<ElevatorActivity> expected = new ArrayList<>();
+        firstRun.status()[0].getActivityLogsMap().values().forEach(expected::addAll);
+        secondRun.status()[0].getActivityLogsMap().values().forEach(expected::addAll);
+        assertEquals(expected.toString(), reader.readElevatorActivities(0, 0, Integer.MAX_VALUE).toString());
+    }
+
+    @Test
+    void onActivity_closedJournal_throwsIllegalStateExceptionAndCloseCanBeRepeated() throws IOException {
+        // given
+        ActivityJournal journal = new ActivityJournal(directory, 4096);
+        journal.onActivity(0, ActivityCodec.header(1, ActivityType.MOVE, ElevatorState.UP), ActivityCodec.values(0, 1));
+
+        // when
+        journal.close();
+        journal.close();
+
+        // then
+        assertThrows(IllegalStateException.class,
+                () -> journal.onActivity(0, ActivityCodec.header(2, ActivityType.MOVE, ElevatorState.UP), ActivityCodec.values(1, 2)));
+        assertEquals(1, new ActivityJournalReader(directory).readElevatorActivities(0, 0, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void read_stepRange_onlyActivitiesOfStepsInRange() throws IOException {
+        // given
+        ElevatorSystem system = new ElevatorSystem(1, 10, 9, 3, 3, 2, new int[] {0});
+        ActivityJournal journal = new ActivityJournal(directory, 4096);
+        system.addActivityLogListener(journal);
+        system.pickup(new PickupRequest(9, RequestDirection.DOWN, 2, List.of(0)));
+        for (int i = 0; i < 30; i++) {
+            system.step();
+        }
+        journal.close();
+
+        // when
+        List<Integer> steps = new ArrayList<>();
+        new ActivityJournalReader(directory).read(5, 8, (elevatorId, header, values) -> steps.add(ActivityCodec.step(header)));
+
+        // then
+        assertEquals(List.of(5, 6, 7, 8), steps.stream().distinct().toList());
+    }
+}
@@ -0,0 +1,104 @@
+package com.system;
+
+import com.system.activities.ElevatorActivity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ActivityPublisherTest {
+
+    // requests given number of batches up front and collects them
+    private static class CollectingSubscriber implements Flow.Subscriber<ActivityBatch> {
+        private final long requestedBatches;
+        private final List<ActivityBatch> batches = new ArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        CollectingSubscriber(long requestedBatches) {
+            this.requestedBatches = requestedBatches;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(requestedBatches);
+        }
+
+        @Override
+        public void onNext(ActivityBatch item) {
+            batches.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    @Test
+    void publishActivities_blockingSubscriber_receivesEveryActivityInStepBatches() throws InterruptedException {
+        // given
+        ElevatorSystem system = new ElevatorSystem(2, 10, 9, 3, 3, 2, new int[] {0, 10});
+        ActivityPublisher publisher = system.publishActivities(Runnable::run, 4, ActivityPublisher.OverflowPolicy.BLOCK);
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+        system.pickup(new PickupRequest(3, RequestDirection.UP, 2, List.of(6)));
+        system.pickup(new PickupRequest(7, RequestDirection.DOWN, 4, List.of(0, 2)));
+
+        // when
+        for (int i = 0; i < 25; i++) {
+            system.step();
+        }
+        publisher.close();
+
+        // then
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        for (int elevatorId = 0; elevatorId < 2; elevatorId++) {
+            List<String> expected = new ArrayList<>();
+            system.status()[elevatorId].getActivityLogsMap().values().forEach(x -> x.forEach(y -> expected.add(y.toString())));
+            List<String> published = new ArrayList<>();
+            for (ActivityBatch batch : subscriber.batches) {
+                assertEquals(batch.getFromStep(), batch.getToStep());
+                for (int i = 0; i < batch.size(); i++) {
+                    ElevatorActivity activity = batch.activity(i);
+                    assertEquals(batch.getFromStep(), activity.getStep());
+                    if (batch.elevatorId(i) == elevatorId) {
+                        published.add(activity.toString());
+                    }
+                }
+            }
+            assertEquals(expected, published);
+        }
+        assertEquals(0, publisher.getDroppedBatches());
+    }
+
+    @Test
+    void publishActivities_subscriberNotRequestingMoreThanOneBatchWithDropPolicy_simulationContinuesAndBatchesAreDropped() {
+        // given
+        ElevatorSystem system = new ElevatorSystem(1, 10, 9, 3, 3, 2, new int[] {0});
+        ActivityPublisher publisher = system.publishActivities(Runnable::run, 1, ActivityPublisher.OverflowPolicy.DROP);
+        CollectingSubscriber subscriber = new CollectingSubscriber(1);
+        publisher.subscribe(subscriber);
+        system.pickup(new PickupRequest(9, RequestDirection.DOWN, 2, List.of(0)));
+
+        // when
+        for (int i = 0; i < 30; i++) {
+            system.step();
+        }
+
+        // then
+        assertEquals(30, system.getCurrentStep());
+        assertEquals(1, subscriber.batches.size());
+        assertTrue(publisher.getDroppedBatches() > 0);
+        publisher.close();
+    }
+}
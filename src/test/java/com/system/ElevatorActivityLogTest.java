@@ -0,0 +1,113 @@
+package com.system;
+
+import com.system.activities.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ElevatorActivityLogTest {
+
+    @Test
+    void asMap_activitiesOfSeveralSteps_groupedByStepInStepOrder() {
+        // given
+        ElevatorActivityLog log = new ElevatorActivityLog(0);
+
+        // when
+        append(log, new AddPickupRequestActivity(1, ElevatorState.IDLE, 3));
+        append(log, new MoveActivity(1, ElevatorState.UP, 0, 1));
+        append(log, new MoveActivity(2, ElevatorState.UP, 1, 2));
+        append(log, new DoorOpenedActivity(5, ElevatorState.UP, 3));
+
+        // then
+        assertEquals(List.of(1, 2, 5), List.copyOf(log.asMap().keySet()));
+        assertEquals(2, log.asMap().get(1).size());
+        assertTrue(log.asMap().get(5).get(0) instanceof DoorOpenedActivity);
+        assertNull(log.asMap().get(3));
+        assertEquals(4, log.size());
+    }
+
+    @Test
+    void asMap_activitiesOfStepReadBeforeLaterAppends_listNotChangedByLaterAppends() {
+        // given
+        ElevatorActivityLog log = new ElevatorActivityLog(0);
+        append(log, new MoveActivity(1, ElevatorState.UP, 0, 1));
+        List<ElevatorActivity> firstStep = log.asMap().get(1);
+
+        // when
+        append(log, new MoveActivity(2, ElevatorState.UP, 1, 2));
+        append(log, new MoveActivity(3, ElevatorState.UP, 2, 3));
+
+        // then
+        assertEquals(1, firstStep.size());
+        assertEquals(3, log.asMap().size());
+    }
+
+    @Test
+    void append_lastStepsRetention_keepsOnlyLastStepsAndSpillsEvictedActivitiesInOrder() {
+        // given
+        ElevatorActivityLog log = new ElevatorActivityLog(3);
+        List<Integer> spilledSteps = new ArrayList<>();
+        log.setRetention(ActivityRetention.lastSteps(2), (elevatorId, header, values) -> {
+            assertEquals(3, elevatorId);
+            spilledSteps.add(ActivityCodec.step(header));
+        });
+
+        // when
+        for (int step = 1; step <= 100; step++) {
+            append(log, new AddPickupRequestActivity(step, ElevatorState.IDLE, 3));
+            append(log, new MoveActivity(step, ElevatorState.UP, step, step + 1));
+        }
+
+        // then
+        assertEquals(List.of(99, 100), List.copyOf(log.asMap().keySet()));
+        assertEquals(4, log.size());
+        assertEquals(196, spilledSteps.size());
+        assertEquals(1, (int) spilledSteps.get(0));
+        assertEquals(98, (int) spilledSteps.get(195));
+    }
+
+    @Test
+    void append_lastActivitiesRetention_oldestStepKeepsOnlyItsNewerActivities() {
+        // given
+        ElevatorActivityLog log = new ElevatorActivityLog(0);
+        log.setRetention(ActivityRetention.lastActivities(3), null);
+
+        // when
+        for (int step = 1; step <= 50; step++) {
+            append(log, new AddPickupRequestActivity(step, ElevatorState.IDLE, 3));
+            append(log, new MoveActivity(step, ElevatorState.UP, step, step + 1));
+        }
+
+        // then
+        assertEquals(3, log.size());
+        assertEquals(List.of(49, 50), List.copyOf(log.asMap().keySet()));
+        assertTrue(log.asMap().get(49).get(0) instanceof MoveActivity);
+    }
+
+    @Test
+    void evictUpTo_stepWindowRetention_stepsWithoutActivitiesCountToTheWindow() {
+        // given
+        ElevatorActivityLog log = new ElevatorActivityLog(0);
+        log.setRetention(ActivityRetention.stepWindow(10), null);
+        append(log, new MoveActivity(1, ElevatorState.UP, 0, 1));
+        append(log, new MoveActivity(5, ElevatorState.UP, 1, 2));
+        append(log, new MoveActivity(12, ElevatorState.UP, 2, 3));
+
+        // when
+        log.evictUpTo(12);
+        List<Integer> stepsInStep12 = List.copyOf(log.asMap().keySet());
+        log.evictUpTo(20);
+
+        // then
+        assertEquals(List.of(5, 12), stepsInStep12);
+        assertEquals(List.of(12), List.copyOf(log.asMap().keySet()));
+    }
+
+    private static void append(ElevatorActivityLog log, ElevatorActivity activity) {
+        log.append(activity.getStep(), ActivityCodec.type(ActivityEncoder.header(activity)), activity.getState(),
+                ActivityCodec.firstValue(ActivityEncoder.values(activity)), ActivityCodec.secondValue(ActivityEncoder.values(activity)));
+    }
+}
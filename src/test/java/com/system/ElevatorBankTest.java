@@ -0,0 +1,76 @@
+package com.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ElevatorBankTest {
+
+    @Test
+    void floorBitmap_floorsInSeveralWords_answersRangeQueries() {
+        // given
+        ElevatorBank bank = new ElevatorBank(3, 150, new SimulationClock());
+        Elevator elevator = new Elevator(bank, 1, 1, 0, 1, 1, 150);
+
+        // when
+        elevator.addDeliveryDestinationFloorList(List.of(3, 64, 130, 64));
+
+        // then
+        assertEquals(Set.of(3, 64, 130), elevator.getDeliveryDestinationFloors());
+        assertEquals(3, elevator.getNumberOfDeliveries());
+        assertEquals(2, ElevatorBank.countBits(bank.bitmaps[ElevatorBank.DELIVERIES], bank.wordsPerElevator, bank.wordsPerElevator, 4, 200));
+        assertEquals(64, ElevatorBank.nextSetBit(bank.bitmaps[ElevatorBank.DELIVERIES], bank.wordsPerElevator, bank.wordsPerElevator, 4));
+        assertEquals(64, ElevatorBank.previousSetBit(bank.bitmaps[ElevatorBank.DELIVERIES], bank.wordsPerElevator, bank.wordsPerElevator, 129));
+        assertTrue(ElevatorBank.isEmpty(bank.bitmaps[ElevatorBank.DELIVERIES], 0, bank.wordsPerElevator));
+    }
+
+    @Test
+    void floorBitmap_floorAboveKnownFloors_widensBitmapsOfAllElevators() {
+        // given
+        ElevatorBank bank = new ElevatorBank(2, 10, new SimulationClock());
+        Elevator first = new Elevator(bank, 0, 0, 0, 1, 1, 10);
+        Elevator second = new Elevator(bank, 1, 1, 0, 1, 1, 10);
+        first.addDeliveryDestinationFloorList(List.of(5));
+        second.addDeliveryDestinationFloorList(List.of(7));
+
+        // when
+        second.addDeliveryDestinationFloorList(List.of(200));
+
+        // then
+        assertEquals(Set.of(5), first.getDeliveryDestinationFloors());
+        assertEquals(Set.of(7, 200), second.getDeliveryDestinationFloors());
+    }
+
+    @Test
+    void stepAll_elevatorsInOneBank_sameActivitiesAsStandaloneElevators() {
+        // given
+        SimulationClock clock = new SimulationClock();
+        ElevatorBank bank = new ElevatorBank(2, 100, clock);
+        Elevator[] banked = {new Elevator(bank, 0, 0, 10, 2, 2, 100), new Elevator(bank, 1, 1, 90, 2, 2, 100)};
+        Elevator[] standalone = {new Elevator(0, 10, 2, 2, 100, clock), new Elevator(1, 90, 2, 2, 100, clock)};
+        for (Elevator[] elevators : List.of(banked, standalone)) {
+            elevators[0].addDeliveryDestinationFloorList(List.of(70));
+            elevators[0].addPickupRequest(new PickupRequest(40, RequestDirection.UP, 2, List.of(80)));
+            elevators[1].addPickupRequest(new PickupRequest(20, RequestDirection.DOWN, 2, List.of(5)));
+        }
+
+        // when
+        for (int step = 0; step < 100; step++) {
+            clock.advance();
+            bank.stepAll(new ArrayList<>());
+            for (Elevator elevator : standalone) {
+                elevator.step();
+            }
+        }
+
+        // then
+        for (int i = 0; i < 2; i++) {
+            assertEquals(standalone[i].toString(), banked[i].toString());
+            assertEquals(standalone[i].getActivityLogsMap().toString(), banked[i].getActivityLogsMap().toString());
+        }
+    }
+}
@@ -1,23 +1,29 @@
 package com.system;
 
+import com.system.activities.ActivityCodec;
+import com.system.activities.ActivityType;
+import com.system.activities.ClearPickupRequestsActivity;
 import com.system.activities.DoorClosedActivity;
 import com.system.activities.DoorOpenedActivity;
 import com.system.activities.ElevatorBrokenActivity;
 import com.system.activities.MoveActivity;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ElevatorSystemTest {
 
-    @AfterEach
-    void resetElevatorSystemStaticField() {
-        ElevatorSystem.setCurrentStepToZeroForTesting();
-    }
-
     @Test
     void testSinglePickupRequest_elevatorsOnTheSameFloor_picksTheOneWithLowerId() {
         // given
@@ -213,4 +219,329 @@ public class ElevatorSystemTest {
         // then
         assertTrue(elevatorZeroMovedButStopped && elevatorOneHandledBothRequests);
     }
+
+    @Test
+    void testIncrementalDispatch_singlePickupRequest_sameDoorActivitiesAsFullDispatchWithoutClearingAssignments() {
+        // given
+        ElevatorSystem system = new ElevatorSystem(2, 10, 9, 3, 3, 2, new int[] {0, 0});
+        system.setDispatchMode(DispatchMode.INCREMENTAL);
+        PickupRequest request = new PickupRequest(5, RequestDirection.UP, 2, List.of(10));
+
+        // when
+        system.pickup(request);
+        for (int i = 0; i < 15; i++) {
+            system.step();
+        }
+        boolean elevatorZeroOpenDoorInStep5 = system.status()[0].getActivityLogsMap().get(5).stream().anyMatch(x -> x instanceof DoorOpenedActivity && ((DoorOpenedActivity) x).getCurrentFloor() == 5);
+        boolean elevatorZeroCloseDoorInStep7 = system.status()[0].getActivityLogsMap().get(7).stream().anyMatch(x -> x instanceof DoorClosedActivity && ((DoorClosedActivity) x).getCurrentFloor() == 5 && ((DoorClosedActivity) x).getStepsWaited() == 2);
+        boolean elevatorZeroOpenDoorInStep12 = system.status()[0].getActivityLogsMap().get(12).stream().anyMatch(x -> x instanceof DoorOpenedActivity && ((DoorOpenedActivity) x).getCurrentFloor() == 10);
+        boolean elevatorOneHasNoActivities = system.status()[1].getActivityLogsMap().isEmpty();
+        boolean anyPickupRequestsCleared = system.status()[0].getActivityLogsMap().entrySet().stream().flatMap(x -> x.getValue().stream()).anyMatch(x -> x instanceof ClearPickupRequestsActivity);
+
+        // then
+        assertTrue(elevatorZeroOpenDoorInStep5 && elevatorZeroCloseDoorInStep7 && elevatorZeroOpenDoorInStep12 && elevatorOneHasNoActivities);
+        assertFalse(anyPickupRequestsCleared);
+    }
+
+    @Test
+    void testMinCostAssignmentEngine_oneRequestUpAndOneRequestDown_lowerElevatorTakesRequestUpAndUpperElevatorTakesRequestDown() {
+        // given
+        ElevatorSystem system = new ElevatorSystem(2, 10, 9, 3, 3, 2, new int[] {1, 8});
+        system.setAssignmentEngine(AssignmentEngine.MIN_COST);
+        PickupRequest requestOne = new PickupRequest(3, RequestDirection.UP, 4, List.of(10));
+        PickupRequest requestTwo = new PickupRequest(4, RequestDirection.DOWN, 1, List.of(0));
+
+        // when
+        system.pickup(requestOne);
+        system.pickup(requestTwo);
+        for (int i = 0; i < 16; i++) {
+            system.step();
+        }
+        boolean elevatorZeroOpenDoorInStep2 = system.status()[0].getActivityLogsMap().get(2).stream().anyMatch(x -> x instanceof DoorOpenedActivity && ((DoorOpenedActivity) x).getCurrentFloor() == 3);
+        boolean elevatorZeroOpenDoorInStep13 = system.status()[0].getActivityLogsMap().get(13).stream().anyMatch(x -> x instanceof DoorOpenedActivity && ((DoorOpenedActivity) x).getCurrentFloor() == 10);
+        boolean elevatorOneOpenDoorInStep4 = system.status()[1].getActivityLogsMap().get(4).stream().anyMatch(x -> x instanceof DoorOpenedActivity && ((DoorOpenedActivity) x).getCurrentFloor() == 4);
+        boolean elevatorOneOpenDoorInStep9 = system.status()[1].getActivityLogsMap().get(9).stream().anyMatch(x -> x instanceof DoorOpenedActivity && ((DoorOpenedActivity) x).getCurrentFloor() == 0);
+
+        // then
+        assertTrue(elevatorZeroOpenDoorInStep2 && elevatorZeroOpenDoorInStep13 && elevatorOneOpenDoorInStep4 && elevatorOneOpenDoorInStep9);
+    }
+
+    @Test
+    void testMinCostAssignmentEngine_timeBudgetExhausted_everyRequestAssignedAndServedAsWithGreedyEngine() {
+        // given
+        ElevatorSystem minCostSystem = new ElevatorSystem(3, 20, 9, 3, 3, 2, new int[] {0, 10, 20});
+        minCostSystem.setAssignmentEngine(AssignmentEngine.MIN_COST);
+        minCostSystem.setAssignmentTimeBudget(Duration.ZERO);
+        ElevatorSystem greedySystem = new ElevatorSystem(3, 20, 9, 3, 3, 2, new int[] {0, 10, 20});
+        List<PickupRequest> requests = List.of(new PickupRequest(3, RequestDirection.UP, 2, List.of(12)),
+                new PickupRequest(7, RequestDirection.DOWN, 2, List.of(1)), new PickupRequest(15, RequestDirection.UP, 1, List.of(19)),
+                new PickupRequest(13, RequestDirection.DOWN, 3, List.of(4, 2)), new PickupRequest(9, RequestDirection.UP, 2, List.of(11)));
+
+        // when
+        for (PickupRequest request : requests) {
+            minCostSystem.pickup(request);
+            greedySystem.pickup(new PickupRequest(request.getFloor(), request.getDirection(), request.getNumberOfEnteringSteps(), request.getDestinationFloors()));
+        }
+        for (int i = 0; i < 80; i++) {
+            minCostSystem.step();
+            greedySystem.step();
+        }
+
+        // then
+        assertEquals(0, minCostSystem.getSnapshot().getNumberOfPendingRequests());
+        assertEquals(requests.size(), minCostSystem.getPassengerStatistics().getWaitSteps().getCount());
+        assertEquals(6, minCostSystem.getPassengerStatistics().getRideSteps().getCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(greedySystem.status()[i].getActivityLogsMap().toString(), minCostSystem.status()[i].getActivityLogsMap().toString());
+        }
+    }
+
+    @Test
+    void testParallelDispatch_manyRandomRequests_sameActivityLogsAsSequentialDispatch() {
+        // given
+        ElevatorSystem sequentialSystem = new ElevatorSystem(8, 30, 9, 3, 3, 2, new int[] {0, 4, 8, 12, 16, 20, 24, 28});
+        ElevatorSystem parallelSystem = new ElevatorSystem(8, 30, 9, 3, 3, 2, new int[] {0, 4, 8, 12, 16, 20, 24, 28});
+        parallelSystem.setParallelDispatch(ForkJoinPool.commonPool(), 0);
+        Random random = new Random(42);
+        List<PickupRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            RequestDirection direction = random.nextBoolean() ? RequestDirection.UP : RequestDirection.DOWN;
+            requests.add(new PickupRequest(random.nextInt(31), direction, 2, List.of(random.nextInt(31))));
+        }
+
+        // when
+        for (PickupRequest request : requests) {
+            sequentialSystem.pickup(new PickupRequest(request.getFloor(), request.getDirection(), 2, request.getDestinationFloors()));
+            sequentialSystem.step();
+        }
+        for (PickupRequest request : requests) {
+            parallelSystem.pickup(request);
+            parallelSystem.step();
+        }
+
+        // then
+        for (int i = 0; i < 8; i++) {
+            assertEquals(sequentialSystem.status()[i].getActivityLogsMap().toString(), parallelSystem.status()[i].getActivityLogsMap().toString());
+        }
+    }
+
+    @Test
+    void testStepWindowRetention_elevatorIdleAfterHandlingRequest_oldActivitiesEvictedAndSpilledInStepOrder() {
+        // given
+        // in INCREMENTAL mode an idle elevator logs no activities
+        ElevatorSystem system = new ElevatorSystem(2, 10, 9, 3, 3, 2, new int[] {0, 10});
+        system.setDispatchMode(DispatchMode.INCREMENTAL);
+        List<Integer> spilledSteps = new ArrayList<>();
+        system.setActivityRetention(ActivityRetention.stepWindow(5), (id, header, values) -> spilledSteps.add(ActivityCodec.step(header)));
+        system.schedulePickup(1, new PickupRequest(3, RequestDirection.UP, 2, List.of(5)));
+        system.schedulePickup(30, new PickupRequest(7, RequestDirection.DOWN, 2, List.of(9)));
+
+        // when
+        system.advanceTo(25);
+        boolean elevatorsHaveActivitiesAfterFirstRequest = !system.status()[0].getActivityLogsMap().isEmpty()
+                || !system.status()[1].getActivityLogsMap().isEmpty();
+        int spilledActivitiesAfterFirstRequest = spilledSteps.size();
+        system.advanceTo(100);
+
+        // then
+        assertFalse(elevatorsHaveActivitiesAfterFirstRequest);
+        assertTrue(spilledActivitiesAfterFirstRequest > 0 && spilledSteps.size() > spilledActivitiesAfterFirstRequest);
+        assertTrue(system.status()[0].getActivityLogsMap().isEmpty() && system.status()[1].getActivityLogsMap().isEmpty());
+        for (int i = 1; i < spilledSteps.size(); i++) {
+            assertTrue(spilledSteps.get(i - 1) <= spilledSteps.get(i));
+        }
+    }
+
+    @Test
+    void testParallelSteps_manyElevatorsAndRandomRequests_sameActivitiesInSameOrderAsSequentialSteps() {
+        // given
+        int numberOfElevators = 300;
+        int[] startingFloors = new int[numberOfElevators];
+        // elevators start at even floors and passengers wait at odd floors
+        for (int i = 0; i < numberOfElevators; i++) {
+            startingFloors[i] = 2 * i;
+        }
+        ElevatorSystem sequentialSystem = new ElevatorSystem(numberOfElevators, 600, 4, 3, 3, 2, startingFloors);
+        ElevatorSystem parallelSystem = new ElevatorSystem(numberOfElevators, 600, 4, 3, 3, 2, startingFloors);
+        sequentialSystem.setDispatchMode(DispatchMode.INCREMENTAL);
+        parallelSystem.setDispatchMode(DispatchMode.INCREMENTAL);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        parallelSystem.setParallelSteps(pool, 0);
+        List<String> sequentialActivities = new ArrayList<>();
+        List<String> parallelActivities = new ArrayList<>();
+        List<String> sequentialSpilledActivities = new ArrayList<>();
+        List<String> parallelSpilledActivities = new ArrayList<>();
+        sequentialSystem.addActivityLogListener((id, header, values) -> sequentialActivities.add(id + ":" + ActivityCodec.type(header) + ":" + header + ":" + values));
+        // listeners are called on the thread performing the step, also in parallel steps
+        Thread stepThread = Thread.currentThread();
+        parallelSystem.addActivityLogListener((id, header, values) -> parallelActivities.add(Thread.currentThread() == stepThread
+                ? id + ":" + ActivityCodec.type(header) + ":" + header + ":" + values : "called by " + Thread.currentThread().getName()));
+        sequentialSystem.setActivityRetention(ActivityRetention.lastSteps(3), (id, header, values) -> sequentialSpilledActivities.add(id + ":" + header));
+        parallelSystem.setActivityRetention(ActivityRetention.lastSteps(3), (id, header, values) -> parallelSpilledActivities.add(id + ":" + header));
+        Random random = new Random(7);
+
+        // when
+        try {
+            for (int step = 0; step < 60; step++) {
+                for (int i = 0; i < 10; i++) {
+                    RequestDirection direction = random.nextBoolean() ? RequestDirection.UP : RequestDirection.DOWN;
+                    int floor = 2 * random.nextInt(300) + 1;
+                    // some passengers keep the door open for too long, so that elevators break
+                    int enteringSteps = random.nextInt(10) == 0 ? 8 : 2;
+                    List<Integer> destinationFloors = List.of(random.nextInt(601), random.nextInt(601));
+                    sequentialSystem.pickup(new PickupRequest(floor, direction, enteringSteps, destinationFloors));
+                    parallelSystem.pickup(new PickupRequest(floor, direction, enteringSteps, destinationFloors));
+                }
+                sequentialSystem.step();
+                parallelSystem.step();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // then
+        assertEquals(sequentialActivities, parallelActivities);
+        assertEquals(sequentialSpilledActivities, parallelSpilledActivities);
+        assertFalse(sequentialSpilledActivities.isEmpty());
+        assertTrue(sequentialActivities.stream().anyMatch(x -> x.contains(":" + ActivityType.ELEVATOR_BROKEN + ":")));
+        for (int i = 0; i < numberOfElevators; i++) {
+            assertEquals(sequentialSystem.status()[i].toString(), parallelSystem.status()[i].toString());
+        }
+        PassengerStatistics sequentialPassengers = sequentialSystem.getPassengerStatistics();
+        PassengerStatistics parallelPassengers = parallelSystem.getPassengerStatistics();
+        assertEquals(sequentialPassengers.getJourneySteps().getCount(), parallelPassengers.getJourneySteps().getCount());
+        assertEquals(sequentialPassengers.getJourneySteps().getMean(), parallelPassengers.getJourneySteps().getMean());
+        assertEquals(sequentialPassengers.getLostPassengers(), parallelPassengers.getLostPassengers());
+    }
+
+    @Test
+    void testIndependentSystemsSteppedConcurrently_sameScenario_identicalActivityLogsWithOwnStepNumbers() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<ElevatorSystem>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                ElevatorSystem system = new ElevatorSystem(1, 10, 9, 3, 3, 2, new int[] {2});
+                system.pickup(new PickupRequest(3, RequestDirection.UP, 2, List.of(6)));
+                system.pickup(new PickupRequest(7, RequestDirection.DOWN, 4, List.of(0, 2)));
+                for (int j = 0; j < 25; j++) {
+                    system.step();
+                }
+                return system;
+            }));
+        }
+        List<ElevatorSystem> systems = new ArrayList<>();
+        for (Future<ElevatorSystem> future : futures) {
+            systems.add(future.get());
+        }
+        executor.shutdown();
+
+        // then
+        for (ElevatorSystem system : systems) {
+            assertEquals(25, system.getCurrentStep());
+            assertTrue(system.status()[0].getActivityLogsMap().get(9).stream().anyMatch(x -> x instanceof DoorOpenedActivity && ((DoorOpenedActivity) x).getCurrentFloor() == 7));
+            assertEquals(systems.get(0).status()[0].getActivityLogsMap().toString(), system.status()[0].getActivityLogsMap().toString());
+        }
+    }
+
+    @Test
+    void testAdvanceTo_sparseScheduledRequestsInTallBuilding_sameActivityLogsAsSingleSteps() {
+        // given
+        ElevatorSystem steppedSystem = new ElevatorSystem(4, 60, 9, 3, 3, 2, new int[] {0, 20, 40, 60});
+        ElevatorSystem advancedSystem = new ElevatorSystem(4, 60, 9, 3, 3, 2, new int[] {0, 20, 40, 60});
+        for (ElevatorSystem system : List.of(steppedSystem, advancedSystem)) {
+            system.setDispatchMode(DispatchMode.INCREMENTAL);
+            system.setFullReassignmentInterval(500);
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 40; i++) {
+            int step = random.nextInt(2000);
+            RequestDirection direction = random.nextBoolean() ? RequestDirection.UP : RequestDirection.DOWN;
+            int floor = random.nextInt(61);
+            int destinationFloor = random.nextInt(61);
+            int enteringSteps = 1 + random.nextInt(4);
+            steppedSystem.schedulePickup(step, new PickupRequest(floor, direction, enteringSteps, List.of(destinationFloor)));
+            advancedSystem.schedulePickup(step, new PickupRequest(floor, direction, enteringSteps, List.of(destinationFloor)));
+        }
+
+        // when
+        for (int i = 0; i < 2500; i++) {
+            steppedSystem.step();
+        }
+        advancedSystem.advanceTo(2500);
+
+        // then
+        assertEquals(2500, advancedSystem.getCurrentStep());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(steppedSystem.status()[i].getActivityLogsMap().toString(), advancedSystem.status()[i].getActivityLogsMap().toString());
+        }
+    }
+
+    @Test
+    void testPickupFromManyThreadsWhileStepping_everyRequestIsHandled() throws Exception {
+        // given
+        ElevatorSystem system = new ElevatorSystem(4, 10, 20, 1, 1, 1, new int[] {0, 3, 6, 10});
+        system.setDispatchMode(DispatchMode.INCREMENTAL);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<PickupRequest>>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            int seed = i;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                List<PickupRequest> created = new ArrayList<>();
+                for (int j = 0; j < 200; j++) {
+                    int floor = random.nextInt(10);
+                    PickupRequest request = new PickupRequest(floor, RequestDirection.UP, 1, List.of(10));
+                    created.add(request);
+                    system.pickup(request);
+                }
+                return created;
+            }));
+        }
+        List<PickupRequest> createdRequests = new ArrayList<>();
+        while (futures.stream().anyMatch(x -> !x.isDone())) {
+            system.step();
+        }
+        for (Future<List<PickupRequest>> future : futures) {
+            createdRequests.addAll(future.get());
+        }
+        executor.shutdown();
+        for (int i = 0; i < 20000 && createdRequests.stream().anyMatch(x -> !x.isRequestDone()); i++) {
+            system.step();
+        }
+
+        // then
+        assertEquals(800, createdRequests.size());
+        assertTrue(createdRequests.stream().allMatch(PickupRequest::isRequestDone));
+    }
+
+    @Test
+    void testSnapshot_afterSteps_describesStateAtTheEndOfTheLastStepAndIsNotChangedByFollowingSteps() {
+        // given
+        ElevatorSystem system = new ElevatorSystem(2, 10, 9, 3, 3, 2, new int[] {0, 10});
+        system.pickup(new PickupRequest(3, RequestDirection.UP, 2, List.of(6)));
+        ElevatorSystemSnapshot initialSnapshot = system.getSnapshot();
+
+        // when
+        system.step();
+        system.step();
+        ElevatorSystemSnapshot snapshot = system.getSnapshot();
+        system.step();
+
+        // then
+        assertEquals(0, initialSnapshot.getStep());
+        assertEquals(2, snapshot.getStep());
+        assertEquals(2, snapshot.getVersion());
+        assertEquals(2, snapshot.getElevators().get(0).getCurrentFloor());
+        assertEquals(ElevatorState.UP, snapshot.getElevators().get(0).getState());
+        assertEquals(1, snapshot.getElevators().get(0).getNumberOfPickupRequests());
+        assertEquals(10, snapshot.getElevators().get(1).getCurrentFloor());
+        assertEquals(1, snapshot.getNumberOfPendingRequests());
+        assertEquals(3, system.status()[0].getCurrentFloor());
+        assertEquals(3, system.getSnapshot().getElevators().get(0).getCurrentFloor());
+    }
 }
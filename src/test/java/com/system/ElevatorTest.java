@@ -3,9 +3,11 @@ package com.system;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ElevatorTest {
 
@@ -726,4 +728,53 @@ public class ElevatorTest {
             assertEquals(15, elevator.estimateNumberOfStepsUntilPickup(newRequest));
         }
     }
+
+    @Nested
+    class ElevatorStepAllocationClass {
+
+        private static final int STEPS = 100_000;
+
+        // bytes allocated by the current thread while given elevator performs STEPS steps
+        private long allocatedBytesDuringSteps(Elevator elevator, SimulationClock clock) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < STEPS; i++) {
+                clock.advance();
+                elevator.step();
+            }
+            return threads.getThreadAllocatedBytes(threadId) - before;
+        }
+
+        // moving, idling and waiting with open door allocate nothing (less than a byte per step leaves room for the JIT)
+        @Test
+        void step_movingIdleAndDoorOpen_noAllocations() {
+            // given
+            SimulationClock clock = new SimulationClock();
+            Elevator moving = new Elevator(0, 0, 2, 2, 3 * STEPS, clock);
+            moving.addDeliveryDestinationFloorList(List.of(3 * STEPS));
+            moving.addPickupRequest(new PickupRequest(3 * STEPS - 1, RequestDirection.DOWN, 2, List.of(0)));
+            Elevator idle = new Elevator(1, 5, 2, 2, 10, clock);
+            Elevator doorOpen = new Elevator(2, 0, 2, 2, 10, clock);
+            doorOpen.addDeliveryDestinationFloorList(List.of(1, 5));
+            for (Elevator elevator : List.of(moving, idle, doorOpen)) {
+                elevator.setActivityRetention(ActivityRetention.lastSteps(1), null);
+                allocatedBytesDuringSteps(elevator, clock);
+            }
+
+            // when
+            long movingBytes = allocatedBytesDuringSteps(moving, clock);
+            long idleBytes = allocatedBytesDuringSteps(idle, clock);
+            long doorOpenBytes = allocatedBytesDuringSteps(doorOpen, clock);
+
+            // then
+            assertEquals(ElevatorState.UP, moving.getState());
+            assertTrue(moving.isDoorClosed() && moving.getCurrentFloor() == 2 * STEPS);
+            assertEquals(ElevatorState.IDLE, idle.getState());
+            assertTrue(!doorOpen.isDoorClosed() && doorOpen.getCurrentFloor() == 1);
+            assertTrue(movingBytes < STEPS, "moving: " + movingBytes + " bytes");
+            assertTrue(idleBytes < STEPS, "idle: " + idleBytes + " bytes");
+            assertTrue(doorOpenBytes < STEPS, "door open: " + doorOpenBytes + " bytes");
+        }
+    }
 }
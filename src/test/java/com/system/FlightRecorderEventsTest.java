@@ -0,0 +1,76 @@
+package com.system;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightRecorderEventsTest {
+
+    private static List<RecordedEvent> recordSteps(ElevatorSystem system, int steps) throws IOException {
+        Path file = Files.createTempFile("elevator-system", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.system.Step");
+            recording.enable("com.system.DispatchDecision");
+            recording.enable("com.system.DoorOpened");
+            recording.enable("com.system.DoorCycle");
+            recording.start();
+            for (int i = 0; i < steps; i++) {
+                system.step();
+            }
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void step_recordingOn_stepDispatchAndDoorEventsRecorded() throws IOException {
+        // given
+        ElevatorSystem system = new ElevatorSystem(2, 10, 9, 3, 3, 2, new int[] {0, 0});
+        system.setDispatchMode(DispatchMode.INCREMENTAL);
+        system.pickup(new PickupRequest(5, RequestDirection.UP, 2, List.of(10)));
+
+        // when
+        List<RecordedEvent> events = recordSteps(system, 15);
+
+        // then
+        List<RecordedEvent> steps = events.stream().filter(x -> x.getEventType().getName().equals("com.system.Step")).toList();
+        assertEquals(15, steps.size());
+        assertEquals(1, steps.get(0).getInt("step"));
+        assertTrue(steps.stream().allMatch(x -> x.getLong("dispatch") >= 0 && x.getLong("elevatorSteps") > 0));
+
+        List<RecordedEvent> decisions = events.stream().filter(x -> x.getEventType().getName().equals("com.system.DispatchDecision")).toList();
+        // released and assigned again when elevator 0 starts moving
+        assertEquals(2, decisions.size());
+        assertTrue(decisions.stream().allMatch(x -> x.getInt("elevator") == 0));
+        assertEquals(4, decisions.get(1).getInt("estimatedSteps"));
+        assertEquals(5, decisions.get(0).getInt("estimatedSteps"));
+        assertEquals(1, decisions.get(0).getInt("runnerUpElevator"));
+        assertEquals(5, decisions.get(0).getInt("runnerUpEstimatedSteps"));
+        assertEquals("UP", decisions.get(0).getString("requestDirection"));
+
+        List<RecordedEvent> doorOpenings = events.stream().filter(x -> x.getEventType().getName().equals("com.system.DoorOpened")).toList();
+        assertEquals(2, doorOpenings.size());
+        assertEquals(5, doorOpenings.get(0).getInt("step"));
+        assertEquals(5, doorOpenings.get(0).getInt("floor"));
+        assertEquals(0, doorOpenings.get(0).getInt("elevator"));
+        assertTrue(events.stream().allMatch(x -> x.getStackTrace() == null));
+
+        List<RecordedEvent> doorCycles = events.stream().filter(x -> x.getEventType().getName().equals("com.system.DoorCycle")).toList();
+        assertEquals(2, doorCycles.size());
+        assertEquals(5, doorCycles.get(0).getInt("openedStep"));
+        assertEquals(7, doorCycles.get(0).getInt("closedStep"));
+        assertEquals(2, doorCycles.get(0).getInt("dwellSteps"));
+        assertEquals(10, doorCycles.get(1).getInt("floor"));
+    }
+}
@@ -0,0 +1,189 @@
+package com.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FloorCounterTest {
+
+    @Test
+    void count_entriesAddedAndRemoved_countsEntriesInInclusiveRanges() {
+        // given
+        FloorCounter counter = new FloorCounter(10);
+        counter.add(2);
+        counter.add(2);
+        counter.add(5);
+        counter.add(9);
+
+        // when
+        counter.remove(9);
+        counter.remove(7);
+
+        // then
+        assertEquals(3, counter.count(0, FloorCounter.NO_LIMIT));
+        assertEquals(2, counter.count(2, 2));
+        assertEquals(1, counter.count(3, 5));
+        assertEquals(0, counter.count(6, 10));
+        assertEquals(0, counter.count(5, 4));
+        assertEquals(3, counter.count(-5, 100));
+        assertTrue(counter.contains(2));
+        assertFalse(counter.contains(9));
+        assertFalse(counter.contains(-1));
+    }
+
+    @Test
+    void minAndMax_entriesAtSomeFloors_returnNearestFloorsInRangeOrMinusOne() {
+        // given
+        FloorCounter counter = new FloorCounter(10);
+        counter.add(3);
+        counter.add(7);
+
+        // when & then
+        assertEquals(3, counter.min(0, FloorCounter.NO_LIMIT));
+        assertEquals(7, counter.min(4, FloorCounter.NO_LIMIT));
+        assertEquals(-1, counter.min(8, FloorCounter.NO_LIMIT));
+        assertEquals(-1, counter.min(4, 6));
+        assertEquals(7, counter.max(0, FloorCounter.NO_LIMIT));
+        assertEquals(3, counter.max(0, 6));
+        assertEquals(-1, counter.max(0, 2));
+        assertEquals(-1, counter.max(0, -1));
+        assertTrue(counter.any(3, 3));
+        assertFalse(counter.any(4, 6));
+    }
+
+    @Test
+    void add_floorAboveInitialCapacity_growsAndKeepsPreviousCounts() {
+        // given
+        FloorCounter counter = new FloorCounter(4);
+        counter.add(1);
+        counter.add(3);
+        counter.add(3);
+
+        // when
+        counter.add(50);
+        counter.add(9);
+
+        // then
+        assertEquals(5, counter.count(0, FloorCounter.NO_LIMIT));
+        assertEquals(3, counter.count(2, 9));
+        assertEquals(1, counter.count(10, 50));
+        assertEquals(50, counter.max(0, FloorCounter.NO_LIMIT));
+        assertEquals(9, counter.min(4, FloorCounter.NO_LIMIT));
+        assertTrue(counter.contains(1) && counter.contains(3) && counter.contains(9) && counter.contains(50));
+        assertFalse(counter.contains(10));
+    }
+
+    @Test
+    void remove_allEntriesOfFloors_floorsBecomeEmpty() {
+        // given
+        FloorCounter counter = new FloorCounter(10);
+        counter.add(4);
+        counter.add(4);
+        counter.add(6);
+
+        // when
+        counter.remove(4);
+        boolean containsAfterFirstRemoval = counter.contains(4);
+        counter.remove(4);
+        counter.remove(4);
+        counter.remove(6);
+
+        // then
+        assertTrue(containsAfterFirstRemoval);
+        assertFalse(counter.contains(4));
+        assertTrue(counter.isEmpty());
+        assertEquals(0, counter.count(0, FloorCounter.NO_LIMIT));
+        assertEquals(-1, counter.min(0, FloorCounter.NO_LIMIT));
+    }
+
+    @Test
+    void clear_entriesAtManyFloors_counterIsEmptyAndCanBeReused() {
+        // given
+        FloorCounter counter = new FloorCounter(10);
+        counter.add(1);
+        counter.add(1);
+        counter.add(8);
+
+        // when
+        counter.clear();
+        counter.add(5);
+
+        // then
+        assertEquals(1, counter.count(0, FloorCounter.NO_LIMIT));
+        assertEquals(5, counter.min(0, FloorCounter.NO_LIMIT));
+        assertEquals(5, counter.max(0, FloorCounter.NO_LIMIT));
+        assertFalse(counter.contains(1) || counter.contains(8));
+    }
+
+    @Test
+    void allQueries_randomOperations_sameResultsAsNaiveCounts() {
+        // given
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            int numberOfFloors = 1 + random.nextInt(40);
+            FloorCounter counter = new FloorCounter(numberOfFloors);
+            int[] naiveCounts = new int[2 * numberOfFloors + 2];
+
+            for (int operation = 0; operation < 100; operation++) {
+                // when
+                // floors up to twice the initial number of floors, so that the counter grows
+                int floor = random.nextInt(naiveCounts.length);
+                switch (random.nextInt(4)) {
+                    case 0, 1 -> {
+                        counter.add(floor);
+                        naiveCounts[floor]++;
+                    }
+                    case 2 -> {
+                        counter.remove(floor);
+                        naiveCounts[floor] = Math.max(naiveCounts[floor] - 1, 0);
+                    }
+                    case 3 -> {
+                        if (random.nextInt(15) == 0) {
+                            counter.clear();
+                            Arrays.fill(naiveCounts, 0);
+                        }
+                    }
+                }
+
+                // then
+                int from = random.nextInt(naiveCounts.length + 2) - 1;
+                int to = random.nextBoolean() ? FloorCounter.NO_LIMIT : random.nextInt(naiveCounts.length + 2) - 1;
+                assertEquals(naiveCount(naiveCounts, from, to), counter.count(from, to));
+                assertEquals(naiveMin(naiveCounts, from, to), counter.min(from, to));
+                assertEquals(naiveMax(naiveCounts, from, to), counter.max(from, to));
+                assertEquals(naiveMin(naiveCounts, from, to) != -1, counter.any(from, to));
+                assertEquals(naiveCounts[floor] > 0, counter.contains(floor));
+                assertEquals(naiveCount(naiveCounts, 0, FloorCounter.NO_LIMIT) == 0, counter.isEmpty());
+            }
+        }
+    }
+
+    private static int naiveCount(int[] counts, int from, int to) {
+        int res = 0;
+        for (int floor = Math.max(from, 0); floor <= Math.min(to, counts.length - 1); floor++) {
+            res += counts[floor];
+        }
+        return res;
+    }
+
+    private static int naiveMin(int[] counts, int from, int to) {
+        for (int floor = Math.max(from, 0); floor <= Math.min(to, counts.length - 1); floor++) {
+            if (counts[floor] > 0) {
+                return floor;
+            }
+        }
+        return -1;
+    }
+
+    private static int naiveMax(int[] counts, int from, int to) {
+        for (int floor = Math.min(to, counts.length - 1); floor >= Math.max(from, 0); floor--) {
+            if (counts[floor] > 0) {
+                return floor;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,88 @@
+package com.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTest {
+
+    @Test
+    void bucketIndex_everyBucket_containsValuesFromItsLowestToHighestValue() {
+        // given
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 33, 1000, 123_456_789, Long.MAX_VALUE};
+
+        // when, then
+        for (long value : values) {
+            int bucket = Histogram.bucketIndex(value);
+            assertTrue(Histogram.lowestValueOfBucket(bucket) <= value);
+            assertTrue(Histogram.highestValueOfBucket(bucket) >= value);
+            assertTrue(Histogram.highestValueOfBucket(bucket) - Histogram.lowestValueOfBucket(bucket) <= value / 16);
+        }
+        assertEquals(Histogram.bucketIndex(1000) + 1, Histogram.bucketIndex(Histogram.highestValueOfBucket(Histogram.bucketIndex(1000)) + 1));
+    }
+
+    @Test
+    void getValueAtPercentile_randomValues_atMostOneSixteenthAboveExactPercentile() {
+        // given
+        Histogram histogram = new Histogram();
+        SplittableRandom random = new SplittableRandom(7);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble(0, 20));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        // when, then
+        for (double percentile : new double[] {0.01, 0.5, 0.9, 0.99, 0.999, 1.0}) {
+            long exact = values[(int) Math.ceil(percentile * values.length) - 1];
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(reported >= exact && reported <= exact + exact / 16, percentile + ": " + reported + " vs " + exact);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(Arrays.stream(values).average().orElseThrow(), histogram.getMean(), 1e-6 * histogram.getMean());
+    }
+
+    @Test
+    void getValueAtPercentile_valuesAboveHighestTrackedValue_reportedAsRealMaximum() {
+        // given
+        Histogram histogram = new Histogram(100);
+        for (int i = 1; i <= 90; i++) {
+            histogram.record(i);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5000 + i * 1000);
+        }
+
+        // when
+        long median = histogram.getValueAtPercentile(0.5);
+        long p95 = histogram.getValueAtPercentile(0.95);
+        long p100 = histogram.getValueAtPercentile(1.0);
+
+        // then
+        assertTrue(median >= 50 && median <= 50 + 50 / 16, "median: " + median);
+        assertEquals(14_000, p95);
+        assertEquals(14_000, p100);
+        assertEquals(14_000, histogram.getMax());
+    }
+
+    @Test
+    void reset_recordedValues_emptyHistogram() {
+        // given
+        Histogram histogram = new Histogram();
+        histogram.record(5);
+        histogram.record(500);
+
+        // when
+        histogram.reset();
+
+        // then
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(0.99));
+    }
+}
@@ -0,0 +1,89 @@
+package com.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MinCostAssignmentSolverTest {
+
+    @Test
+    void solve_randomSmallMatrices_totalCostEqualToBruteForceOptimum() {
+        // given
+        Random random = new Random(7);
+        for (int testCase = 0; testCase < 200; testCase++) {
+            int numberOfRequests = 1 + random.nextInt(5);
+            int numberOfElevators = 1 + random.nextInt(3);
+            int[][] estimatedSteps = new int[numberOfRequests][numberOfElevators];
+            for (int i = 0; i < numberOfRequests; i++) {
+                for (int j = 0; j < numberOfElevators; j++) {
+                    estimatedSteps[i][j] = random.nextInt(30);
+                }
+            }
+            int[] slotPenalties = new int[numberOfElevators];
+            boolean[] availableElevators = new boolean[numberOfElevators];
+            for (int j = 0; j < numberOfElevators; j++) {
+                slotPenalties[j] = 1 + random.nextInt(4);
+                availableElevators[j] = true;
+            }
+            int slotsPerElevator = Math.min(numberOfRequests, 2 * ((numberOfRequests + numberOfElevators - 1) / numberOfElevators));
+
+            // when
+            int[] result = MinCostAssignmentSolver.solve(estimatedSteps, slotPenalties, availableElevators, System.nanoTime() + 1_000_000_000L);
+
+            // then
+            assertNotNull(result);
+            assertEquals(bruteForce(estimatedSteps, slotPenalties, slotsPerElevator, new int[numberOfRequests], 0),
+                    totalCost(estimatedSteps, slotPenalties, result));
+        }
+    }
+
+    @Test
+    void solve_oneElevatorUnavailable_neverAssignsRequestsToIt() {
+        // given
+        int[][] estimatedSteps = {{1, 9}, {1, 9}, {2, 8}};
+
+        // when
+        int[] result = MinCostAssignmentSolver.solve(estimatedSteps, new int[] {3, 3}, new boolean[] {false, true}, System.nanoTime() + 1_000_000_000L);
+
+        // then
+        assertArrayEquals(new int[] {1, 1, 1}, result);
+    }
+
+    @Test
+    void solve_deadlineAlreadyPassed_returnsNull() {
+        // given
+        int[][] estimatedSteps = {{1, 2}, {3, 4}};
+
+        // when & then
+        assertNull(MinCostAssignmentSolver.solve(estimatedSteps, new int[] {1, 1}, new boolean[] {true, true}, System.nanoTime() - 1));
+    }
+
+    private static long totalCost(int[][] estimatedSteps, int[] slotPenalties, int[] assignment) {
+        int[] loads = new int[slotPenalties.length];
+        long cost = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            cost += estimatedSteps[i][assignment[i]] + (long) loads[assignment[i]]++ * slotPenalties[assignment[i]];
+        }
+        return cost;
+    }
+
+    private static long bruteForce(int[][] estimatedSteps, int[] slotPenalties, int slotsPerElevator, int[] assignment, int row) {
+        if (row == assignment.length) {
+            int[] loads = new int[slotPenalties.length];
+            for (int elevator : assignment) {
+                if (++loads[elevator] > slotsPerElevator) {
+                    return Long.MAX_VALUE;
+                }
+            }
+            return totalCost(estimatedSteps, slotPenalties, assignment);
+        }
+        long best = Long.MAX_VALUE;
+        for (int j = 0; j < slotPenalties.length; j++) {
+            assignment[row] = j;
+            best = Math.min(best, bruteForce(estimatedSteps, slotPenalties, slotsPerElevator, assignment, row + 1));
+        }
+        return best;
+    }
+}
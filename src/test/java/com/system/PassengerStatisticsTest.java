@@ -0,0 +1,73 @@
+package com.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PassengerStatisticsTest {
+
+    @Test
+    void step_singleRequest_waitRideAndJourneyRecorded() {
+        // given
+        ElevatorSystem system = new ElevatorSystem(2, 10, 9, 3, 3, 2, new int[] {0, 0});
+        PickupRequest request = new PickupRequest(5, RequestDirection.UP, 2, List.of(10));
+
+        // when
+        system.pickup(request);
+        for (int i = 0; i < 15; i++) {
+            system.step();
+        }
+        PassengerStatistics statistics = system.getPassengerStatistics();
+
+        // then - created in step 1, picked up in step 5, delivered in step 12
+        assertEquals(1, request.getCreatedStep());
+        assertEquals(5, request.getPickedUpStep());
+        assertEquals(12, request.getServedStep(0));
+        assertEquals(4, statistics.getWaitSteps().getMax());
+        assertEquals(7, statistics.getRideSteps().getMax());
+        assertEquals(11, statistics.getJourneySteps().getMax());
+        assertEquals(1, statistics.getWaitSteps(5, RequestDirection.UP).getCount());
+        assertEquals(0, statistics.getWaitSteps(5, RequestDirection.DOWN).getCount());
+        assertEquals(0, statistics.getLostPassengers());
+    }
+
+    @Test
+    void step_groupWithSeveralDestinations_journeyRecordedForEveryDestination() {
+        // given
+        ElevatorSystem system = new ElevatorSystem(1, 10, 9, 1, 1, 1, new int[] {0});
+        PickupRequest request = new PickupRequest(1, RequestDirection.UP, 1, List.of(3, 6));
+
+        // when
+        system.schedulePickup(2, request);
+        for (int i = 0; i < 20; i++) {
+            system.step();
+        }
+        PassengerStatistics statistics = system.getPassengerStatistics();
+
+        // then
+        assertEquals(1, statistics.getWaitSteps().getCount());
+        assertEquals(2, statistics.getJourneySteps().getCount());
+        assertEquals(2, request.getCreatedStep());
+        assertEquals(request.getServedStep(0) - 2, statistics.getJourneySteps(1, RequestDirection.UP).getValueAtPercentile(0.5));
+        assertEquals(request.getServedStep(1) - 2, statistics.getJourneySteps(1, RequestDirection.UP).getMax());
+        assertTrue(request.getServedStep(0) < request.getServedStep(1));
+    }
+
+    @Test
+    void pickupRequest_differentTimestamps_stillEqual() {
+        // given
+        PickupRequest first = new PickupRequest(3, RequestDirection.DOWN, 2, List.of(0));
+        PickupRequest second = new PickupRequest(3, RequestDirection.DOWN, 2, List.of(0));
+
+        // when
+        first.setCreatedStep(4);
+        first.setPickedUpStep(9);
+        first.setServedStep(0, 12);
+
+        // then
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+}
@@ -0,0 +1,100 @@
+package com.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RealTimeDriverTest {
+
+    @Test
+    void start_fastSteps_stepsPerformedAtFixedRateWithoutOverruns() throws InterruptedException {
+        // given
+        ElevatorSystem system = new ElevatorSystem(2, 10, 9, 3, 3, 2, new int[] {0, 10});
+        system.pickup(new PickupRequest(3, RequestDirection.UP, 2, List.of(6)));
+        RealTimeDriver driver = new RealTimeDriver(system, Duration.ofMillis(2), RealTimeDriver.OverrunPolicy.CATCH_UP);
+
+        // when
+        long start = System.nanoTime();
+        driver.start();
+        Thread.sleep(200);
+        driver.stop();
+        long elapsedTicks = (System.nanoTime() - start) / Duration.ofMillis(2).toNanos();
+
+        // then
+        TickStats stats = driver.getStats();
+        assertFalse(driver.isRunning());
+        assertEquals(system.getCurrentStep(), stats.getTicks());
+        assertTrue(stats.getTicks() > 10 && stats.getTicks() <= elapsedTicks + 1);
+        assertEquals(0, stats.getSkippedTicks());
+        assertEquals(stats.getTicks(), driver.getLatenessHistogram().getCount());
+        assertTrue(stats.getP50LatenessNanos() <= stats.getP99LatenessNanos());
+        assertTrue(stats.getP99LatenessNanos() <= stats.getMaxLatenessNanos());
+    }
+
+    @Test
+    void start_stepsSlowerThanTickPeriodWithCatchUpPolicy_latenessPercentilesGrowWithBacklog() throws InterruptedException {
+        // given
+        ElevatorSystem system = new ElevatorSystem(1, 10, 9, 3, 3, 2, new int[] {0}) {
+            @Override
+            public void step() {
+                super.step();
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RealTimeDriver driver = new RealTimeDriver(system, Duration.ofMillis(1), RealTimeDriver.OverrunPolicy.CATCH_UP);
+
+        // when
+        driver.start();
+        Thread.sleep(100);
+        driver.stop();
+
+        // then
+        // every step is started at least 4 ms later than the previous one, so the n-th step is at least 4 * n ms late
+        TickStats stats = driver.getStats();
+        assertTrue(stats.getTicks() >= 4);
+        assertEquals(0, stats.getSkippedTicks());
+        assertTrue(stats.getP50LatenessNanos() > 0);
+        assertTrue(stats.getP99LatenessNanos() >= Duration.ofMillis(4).toNanos() * (stats.getTicks() - 2));
+        assertTrue(stats.getP50LatenessNanos() <= stats.getP99LatenessNanos());
+        assertTrue(stats.getP99LatenessNanos() <= stats.getMaxLatenessNanos());
+    }
+
+    @Test
+    void start_stepsSlowerThanTickPeriodWithSkipPolicy_overrunsReportedAndMissedTicksSkipped() throws InterruptedException {
+        // given
+        ElevatorSystem system = new ElevatorSystem(1, 10, 9, 3, 3, 2, new int[] {0}) {
+            @Override
+            public void step() {
+                super.step();
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RealTimeDriver driver = new RealTimeDriver(system, Duration.ofMillis(1), RealTimeDriver.OverrunPolicy.SKIP);
+
+        // when
+        driver.start();
+        Thread.sleep(100);
+        driver.stop();
+
+        // then
+        TickStats stats = driver.getStats();
+        assertEquals(system.getCurrentStep(), stats.getTicks());
+        assertEquals(stats.getTicks(), stats.getOverruns());
+        assertTrue(stats.getSkippedTicks() >= 4 * stats.getTicks());
+        assertTrue(stats.getMaxStepNanos() >= Duration.ofMillis(5).toNanos());
+        assertTrue(stats.getP50StepNanos() >= Duration.ofMillis(5).toNanos());
+        assertTrue(stats.getP50StepNanos() <= stats.getP99StepNanos() && stats.getP99StepNanos() <= stats.getMaxStepNanos());
+        assertEquals(stats.getTicks(), driver.getStepHistogram().getCount());
+    }
+}
@@ -0,0 +1,87 @@
+package com.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StepProfilerTest {
+
+    private static ElevatorSystem systemWithRequests() {
+        ElevatorSystem system = new ElevatorSystem(3, 20, 10, 2, 2, 2, new int[] {0, 10, 20});
+        system.pickup(new PickupRequest(5, RequestDirection.UP, 2, List.of(15)));
+        system.pickup(new PickupRequest(12, RequestDirection.DOWN, 2, List.of(1)));
+        return system;
+    }
+
+    @Test
+    void step_profilerDisabled_nothingRecorded() {
+        // given
+        ElevatorSystem system = systemWithRequests();
+
+        // when
+        for (int i = 0; i < 30; i++) {
+            system.step();
+        }
+
+        // then
+        assertEquals(0, system.getProfiler().getNumberOfSteps());
+        assertEquals(0, system.getProfiler().getEstimatorCalls());
+        assertEquals(0, system.getProfiler().getPhaseHistogram(StepPhase.DISPATCH).getCount());
+    }
+
+    @Test
+    void step_profilerEnabled_everyPhaseAndDispatchRecorded() {
+        // given
+        ElevatorSystem system = systemWithRequests();
+        system.getProfiler().setEnabled(true);
+
+        // when
+        for (int i = 0; i < 30; i++) {
+            system.step();
+        }
+        system.getProfiler().setEnabled(false);
+        system.step();
+        Map<String, Long> metrics = system.getProfiler().getMetrics();
+
+        // then
+        assertEquals(30, system.getProfiler().getNumberOfSteps());
+        for (StepPhase phase : StepPhase.values()) {
+            assertEquals(30, system.getProfiler().getPhaseHistogram(phase).getCount());
+        }
+        // FULL mode - both requests are estimated for all 3 elevators until they are picked up
+        assertTrue(system.getProfiler().getEstimatorCalls() >= 6);
+        assertEquals(6, system.getProfiler().getMatrixCellsHistogram().getMax());
+        assertEquals(30, (long) metrics.get("step.count"));
+        assertEquals(30, (long) metrics.get("phase.dispatch.count"));
+        assertTrue(metrics.get("step.max") >= metrics.get("step.p99") && metrics.get("step.p99") >= metrics.get("step.p50"));
+        assertEquals(system.getProfiler().getEstimatorCalls(), (long) metrics.get("dispatch.estimatorCalls"));
+    }
+
+    @Test
+    void registerMBean_enabledThroughJmx_stepsRecordedAndReadable() throws Exception {
+        // given
+        ElevatorSystem system = systemWithRequests();
+        String name = "com.system:type=StepProfiler,name=test";
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        system.getProfiler().registerMBean(name);
+
+        // when
+        server.setAttribute(new ObjectName(name), new Attribute("Enabled", true));
+        for (int i = 0; i < 5; i++) {
+            system.step();
+        }
+        long steps = (long) server.getAttribute(new ObjectName(name), "NumberOfSteps");
+        system.getProfiler().unregisterMBean(name);
+
+        // then
+        assertEquals(5, steps);
+        assertFalse(server.isRegistered(new ObjectName(name)));
+    }
+}
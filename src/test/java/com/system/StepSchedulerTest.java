@@ -0,0 +1,42 @@
+package com.system;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StepSchedulerTest {
+
+    @Test
+    void pollDue_eventsScheduledOutOfOrder_returnsOnlyDueEventsOrderedByStepThenScheduling() {
+        // given
+        StepScheduler<String> scheduler = new StepScheduler<>();
+        scheduler.schedule(7, "c");
+        scheduler.schedule(3, "a");
+        scheduler.schedule(3, "b");
+
+        // when
+        String first = scheduler.pollDue(5);
+        String second = scheduler.pollDue(5);
+        String third = scheduler.pollDue(5);
+
+        // then
+        assertEquals("a", first);
+        assertEquals("b", second);
+        assertNull(third);
+        assertEquals(7, scheduler.nextStep());
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    void nextStep_nothingScheduled_returnsNoEvents() {
+        // given
+        StepScheduler<String> scheduler = new StepScheduler<>();
+
+        // when
+        int nextStep = scheduler.nextStep();
+
+        // then
+        assertEquals(StepScheduler.NO_EVENTS, nextStep);
+        assertNull(scheduler.pollDue(Integer.MAX_VALUE));
+    }
+}
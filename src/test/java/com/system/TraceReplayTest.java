@@ -0,0 +1,90 @@
+package com.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TraceReplayTest {
+
+    private static final String BUILDING = "{\"elevators\":2,\"floors\":10,\"criticalSteps\":9,\"estimatedEnteringSteps\":3,"
+            + "\"estimatedLeavingSteps\":3,\"realLeavingSteps\":2,\"startingFloors\":[0,10]}";
+
+    @Test
+    void run_traceWithTwoRequests_sameActivitiesAsSteppingTheSystemByHand() throws IOException {
+        // given
+        String trace = BUILDING + "\n"
+                + "{\"step\":1,\"floor\":3,\"direction\":\"UP\",\"enteringSteps\":2,\"destinationFloors\":[6]}\n"
+                + "\n"
+                + "{\"step\":40,\"floor\":7,\"direction\":\"DOWN\",\"enteringSteps\":4,\"destinationFloors\":[0,2]}\n";
+        StringWriter output = new StringWriter();
+        ElevatorSystem system = new ElevatorSystem(2, 10, 9, 3, 3, 2, new int[] {0, 10});
+        system.setDispatchMode(DispatchMode.INCREMENTAL);
+        system.schedulePickup(1, new PickupRequest(3, RequestDirection.UP, 2, List.of(6)));
+        system.schedulePickup(40, new PickupRequest(7, RequestDirection.DOWN, 4, List.of(0, 2)));
+
+        // when
+        ReplaySummary summary = new TraceReplay(new BufferedReader(new StringReader(trace)), output).run();
+        system.advanceTo(summary.getSteps());
+
+        // then
+        assertEquals(2, summary.getRequests());
+        String[] lines = output.toString().split("\n");
+        assertEquals(summary.getActivities(), lines.length);
+        long expectedActivities = 0;
+        for (Elevator elevator : system.status()) {
+            expectedActivities += elevator.getActivityLogsMap().values().stream().mapToInt(List::size).sum();
+        }
+        assertEquals(expectedActivities, summary.getActivities());
+        assertTrue(output.toString().contains("{\"step\":40,\"elevator\":0,\"type\":\"DOOR_OPENED\",\"state\":\"UP\",\"values\":[7,0]}"));
+        assertTrue(system.getSnapshot().getElevators().stream().allMatch(x -> x.getState() == ElevatorState.IDLE && x.isDoorClosed()));
+    }
+
+    @Test
+    void run_elevatorBreaksWithOpenDoor_replayStopsWithoutWaitingForIt() throws IOException {
+        // given
+        // the door is opened at floor 3 in step 3 and should be closed after 8 steps, the elevator breaks in step 6
+        String trace = "{\"elevators\":1,\"floors\":10,\"criticalSteps\":2,\"estimatedEnteringSteps\":3,"
+                + "\"estimatedLeavingSteps\":3,\"realLeavingSteps\":2,\"startingFloors\":[0]}\n"
+                + "{\"step\":1,\"floor\":3,\"direction\":\"UP\",\"enteringSteps\":8,\"destinationFloors\":[6]}\n";
+
+        // when
+        ReplaySummary summary = new TraceReplay(new BufferedReader(new StringReader(trace)), null).run();
+
+        // then
+        assertEquals(6, summary.getSteps());
+        assertEquals(1, summary.getPassengers().getLostPassengers());
+    }
+
+    @Test
+    void run_malformedRequestLine_failsWithLineNumber() {
+        // given
+        String trace = BUILDING + "\n{\"step\":1,\"floor\":3,\"direction\":\"UP\",\"enteringSteps\":2,\"destinationFloors\":[6}\n";
+
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new TraceReplay(new BufferedReader(new StringReader(trace)), null).run());
+
+        // then
+        assertTrue(exception.getMessage().startsWith("Line 2:"));
+    }
+
+    @Test
+    void parseObject_allSupportedValues_parsedToLongsStringsAndLists() {
+        // when
+        Map<String, Object> object = JsonLineParser.parseObject(" { \"a\" : -12, \"b\":\"x\\\"y\", \"c\":[1, 2], \"d\":true, \"e\":null } ");
+
+        // then
+        assertEquals(-12L, object.get("a"));
+        assertEquals("x\"y", object.get("b"));
+        assertEquals(List.of(1L, 2L), object.get("c"));
+        assertEquals(Boolean.TRUE, object.get("d"));
+        assertTrue(object.containsKey("e"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrafficGeneratorTest {
+
+    @Test
+    void requests_sameSeedAndSettings_sameRequests() {
+        // given
+        TrafficGenerator first = new TrafficGenerator(11, 40, TrafficProfile.LUNCH, 0.7);
+        TrafficGenerator second = new TrafficGenerator(11, 40, TrafficProfile.LUNCH, 0.7);
+        first.setMaxGroupSize(3);
+        second.setMaxGroupSize(3);
+
+        // when
+        Iterator<ScheduledPickup> firstRequests = first.requests(1, 1000);
+        Iterator<ScheduledPickup> secondRequests = second.requests(1, 1000);
+
+        // then
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(firstRequests.next().toString(), secondRequests.next().toString());
+        }
+        assertFalse(firstRequests.hasNext());
+    }
+
+    @Test
+    void requests_upPeakProfile_poissonArrivalsMostlyFromLobbyGoingUp() {
+        // given
+        TrafficGenerator generator = new TrafficGenerator(3, 100, TrafficProfile.UP_PEAK, 2.5);
+        generator.setMaxGroupSize(4);
+
+        // when
+        Iterator<ScheduledPickup> requests = generator.requests(1, 100_000);
+        int fromLobby = 0;
+        int lastStep = 0;
+        while (requests.hasNext()) {
+            ScheduledPickup pickup = requests.next();
+            PickupRequest request = pickup.getRequest();
+            assertTrue(pickup.getStep() >= lastStep);
+            lastStep = pickup.getStep();
+            assertTrue(request.getDestinationFloors().size() >= 1 && request.getDestinationFloors().size() <= 4);
+            for (int destination : request.getDestinationFloors()) {
+                assertTrue(destination >= 0 && destination <= 100 && destination != request.getFloor());
+                assertEquals(request.getDirection() == RequestDirection.UP, destination > request.getFloor());
+            }
+            if (request.getFloor() == 0) {
+                fromLobby++;
+            }
+        }
+
+        // then
+        assertEquals(0.9, fromLobby / 100_000.0, 0.01);
+        assertEquals(2.5, 100_000.0 / lastStep, 0.05);
+    }
+
+    @Test
+    void writePickups_generatedTrace_replayedWithAllRequests() throws IOException {
+        // given
+        StringWriter trace = new StringWriter();
+        TraceWriter writer = new TraceWriter(trace);
+        writer.writeBuilding(3, 20, 20, 3, 3, 2, new int[] {0, 10, 20});
+        writer.writePickups(new TrafficGenerator(5, 20, TrafficProfile.INTER_FLOOR, 0.1).requests(1, 300));
+
+        // when
+        ReplaySummary summary = new TraceReplay(new BufferedReader(new StringReader(trace.toString())), null).run();
+
+        // then
+        assertEquals(300, summary.getRequests());
+        assertTrue(summary.getSteps() > 2000);
+    }
+
+    @Test
+    void constructorAndSetters_invalidRateOrGroupSize_throwIllegalArgumentException() {
+        // given
+        TrafficGenerator generator = new TrafficGenerator(1, 10, TrafficProfile.LUNCH, 1.0);
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> new TrafficGenerator(1, 10, TrafficProfile.LUNCH, -0.5));
+        assertThrows(IllegalArgumentException.class, () -> new TrafficGenerator(1, 10, TrafficProfile.LUNCH, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> generator.setMaxGroupSize(0));
+        assertThrows(IllegalArgumentException.class, () -> generator.setMaxGroupSize(-3));
+        assertThrows(IllegalArgumentException.class, () -> generator.setEnteringStepsPerPassenger(-1));
+    }
+}
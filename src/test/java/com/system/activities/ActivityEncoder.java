@@ -0,0 +1,44 @@
+package com.system.activities;
+
+// packs typed activities (ActivityCodec), so that tests can build packed activities from readable objects
+public final class ActivityEncoder {
+
+    private ActivityEncoder() {
+    }
+
+    public static long header(ElevatorActivity activity) {
+        return ActivityCodec.header(activity.step, type(activity), activity.state);
+    }
+
+    public static long values(ElevatorActivity activity) {
+        if (activity instanceof MoveActivity move) {
+            return ActivityCodec.values(move.previousFloor, move.newFloor);
+        } else if (activity instanceof DoorOpenedActivity doorOpened) {
+            return ActivityCodec.values(doorOpened.currentFloor, 0);
+        } else if (activity instanceof DoorClosedActivity doorClosed) {
+            return ActivityCodec.values(doorClosed.currentFloor, doorClosed.stepsWaited);
+        } else if (activity instanceof AddPickupRequestActivity addPickupRequest) {
+            return ActivityCodec.values(addPickupRequest.pickupFloor, 0);
+        } else if (activity instanceof ClearPickupRequestsActivity || activity instanceof ElevatorBrokenActivity) {
+            return ActivityCodec.values(0, 0);
+        }
+        throw new IllegalArgumentException("Unknown activity type: " + activity.getClass().getName() + ".");
+    }
+
+    private static ActivityType type(ElevatorActivity activity) {
+        if (activity instanceof MoveActivity) {
+            return ActivityType.MOVE;
+        } else if (activity instanceof DoorOpenedActivity) {
+            return ActivityType.DOOR_OPENED;
+        } else if (activity instanceof DoorClosedActivity) {
+            return ActivityType.DOOR_CLOSED;
+        } else if (activity instanceof AddPickupRequestActivity) {
+            return ActivityType.ADD_PICKUP_REQUEST;
+        } else if (activity instanceof ClearPickupRequestsActivity) {
+            return ActivityType.CLEAR_PICKUP_REQUESTS;
+        } else if (activity instanceof ElevatorBrokenActivity) {
+            return ActivityType.ELEVATOR_BROKEN;
+        }
+        throw new IllegalArgumentException("Unknown activity type: " + activity.getClass().getName() + ".");
+    }
+}